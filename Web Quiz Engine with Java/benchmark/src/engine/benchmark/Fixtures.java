@@ -0,0 +1,32 @@
+package engine.benchmark;
+
+import engine.model.Quiz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sample data shared by the benchmarks.
+ */
+final class Fixtures {
+    static final String PASSWORD = "benchmark-password";
+
+    private Fixtures() {
+    }
+
+    static Quiz quiz(Long id) {
+        Quiz quiz = new Quiz();
+        quiz.setId(id);
+        quiz.setTitle("The Java Logo #" + id);
+        quiz.setText("What is depicted on the Java logo?");
+        quiz.setOptions(new ArrayList<>(Arrays.asList("Robot", "Tea leaf", "Cup of coffee", "Bug")));
+        quiz.setAnswer(new ArrayList<>(List.of(2)));
+        return quiz;
+    }
+
+    static String quizJson(long seed) {
+        return "{\"title\":\"Quiz " + seed + "\",\"text\":\"What is depicted on the Java logo?\","
+                + "\"options\":[\"Robot\",\"Tea leaf\",\"Cup of coffee\",\"Bug\"],\"answer\":[2]}";
+    }
+}
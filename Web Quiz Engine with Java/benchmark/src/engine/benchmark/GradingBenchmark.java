@@ -0,0 +1,39 @@
+package engine.benchmark;
+
+import engine.service.QuizzService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures grading a submitted answer against a quiz's correct answer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GradingBenchmark {
+    @Param({"1", "4", "10"})
+    private int answerSize;
+
+    private List<Integer> correct;
+    private List<Integer> given;
+
+    @Setup
+    public void setUp() {
+        correct = new ArrayList<>();
+        for (int i = 0; i < answerSize; i++) {
+            correct.add(i);
+        }
+        given = new ArrayList<>(correct);
+    }
+
+    @Benchmark
+    public boolean grade() {
+        return QuizzService.areAnswersCorrect(correct, given);
+    }
+}
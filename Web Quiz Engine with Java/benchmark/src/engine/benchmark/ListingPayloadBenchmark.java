@@ -0,0 +1,95 @@
+package engine.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import engine.filter.BufferPool;
+import engine.filter.ResponseCompressor;
+import engine.model.CompactPage;
+import engine.model.Quiz;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares producing a page of the quiz list in the full Spring {@link Page} form, which the API
+ * returned before, against the compact id and title form, each sent uncompressed, gzipped and
+ * deflated. The payload size of every combination is computed once per trial and written to
+ * {@code build/results/listing-payload-sizes.json}, since JMH can only report rates, not sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ListingPayloadBenchmark {
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"FULL", "COMPACT"})
+    private String representation;
+
+    @Param({"NONE", "GZIP", "DEFLATE"})
+    private String encoding;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ResponseCompressor compressor = new ResponseCompressor(new BufferPool(64, 8 * 1024, 256 * 1024), 6, 64);
+    private Object page;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Quiz> quizzes = new ArrayList<>();
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            Quiz quiz = Fixtures.quiz(id);
+            quizzes.add(quiz);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("id", quiz.getId());
+            summary.put("title", quiz.getTitle());
+            summaries.add(summary);
+        }
+        PageRequest pageable = PageRequest.of(0, PAGE_SIZE);
+        Object full = new PageImpl<>(quizzes, pageable, 1_000);
+        Object compact = CompactPage.of(new PageImpl<>(summaries, pageable, 1_000));
+        page = representation.equals("FULL") ? full : compact;
+        writeSizes(full, compact);
+    }
+
+    @Benchmark
+    public int listing() throws JsonProcessingException {
+        return payloadSize(page, encoding);
+    }
+
+    private int payloadSize(Object payload, String encoding) throws JsonProcessingException {
+        byte[] json = mapper.writeValueAsBytes(payload);
+        if (encoding.equals("NONE")) {
+            return json.length;
+        }
+        try (BufferPool.PooledBuffer compressed = compressor.compress(json, json.length,
+                ResponseCompressor.Encoding.valueOf(encoding))) {
+            return compressed.size();
+        }
+    }
+
+    private void writeSizes(Object full, Object compact) throws IOException {
+        Map<String, Map<String, Integer>> sizes = new LinkedHashMap<>();
+        for (String encoding : new String[]{"NONE", "GZIP", "DEFLATE"}) {
+            Map<String, Integer> byRepresentation = new LinkedHashMap<>();
+            byRepresentation.put("FULL", payloadSize(full, encoding));
+            byRepresentation.put("COMPACT", payloadSize(compact, encoding));
+            sizes.put(encoding, byRepresentation);
+        }
+        File output = new File("build/results/listing-payload-sizes.json");
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        mapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(output, sizes);
+    }
+}
@@ -0,0 +1,347 @@
+package engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import engine.WebQuizEngine;
+import engine.model.Quiz;
+import engine.model.User;
+import engine.repository.UserRepository;
+import engine.service.QuizCompletionService;
+import engine.service.QuizzService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process load test. Boots {@link WebQuizEngine} on an in-memory H2 database, seeds users,
+ * quizzes and completions, then drives a weighted mix of API calls from concurrent clients over HTTP
+ * and writes the throughput and latency percentiles of each operation as JSON.
+ * <p>
+ * Settings are read from system properties:
+ * <ul>
+ *     <li>{@code bench.users}, {@code bench.quizzes}, {@code bench.completions}: seeded data set size.</li>
+ *     <li>{@code bench.threads}: number of concurrent clients.</li>
+ *     <li>{@code bench.warmup} and {@code bench.duration}: seconds of unrecorded and recorded load.</li>
+ *     <li>{@code bench.mix}: operation weights, e.g. {@code register=5,create=5,list=40,solve=40,completed=10}.</li>
+ *     <li>{@code bench.output}: path of the JSON result file.</li>
+ * </ul>
+ * Any other {@code bench.app.*} property is passed to the application without the prefix, for example
+ * {@code -Dbench.app.quiz.completion-log.enabled=true}.
+ */
+public class MacroBenchmark {
+    private static final String APP_PROPERTY_PREFIX = "bench.app.";
+
+    private final int users = Integer.getInteger("bench.users", 100);
+    private final int quizzes = Integer.getInteger("bench.quizzes", 1_000);
+    private final int completions = Integer.getInteger("bench.completions", 100_000);
+    private final int threads = Integer.getInteger("bench.threads", 16);
+    private final int warmupSeconds = Integer.getInteger("bench.warmup", 10);
+    private final int durationSeconds = Integer.getInteger("bench.duration", 30);
+    private final Map<Operation, Integer> mix = parseMix(System.getProperty("bench.mix",
+            "register=5,create=5,list=40,solve=40,completed=10"));
+    private final File output = new File(System.getProperty("bench.output", "build/results/macro.json"));
+
+    private final HttpClient client = HttpClient.newBuilder().executor(Executors.newCachedThreadPool()).build();
+    private final List<String> authorizations = new ArrayList<>();
+    private final List<Long> quizIds = new ArrayList<>();
+    private final AtomicLong registrations = new AtomicLong();
+    private String baseUrl;
+
+    enum Operation {
+        REGISTER, CREATE, LIST, SOLVE, COMPLETED
+    }
+
+    public static void main(String[] args) {
+        int status = 0;
+        try {
+            new MacroBenchmark().run();
+        } catch (Throwable e) {
+            e.printStackTrace();
+            status = 1;
+        }
+        // Client and server threads outlive the run, so the JVM is stopped explicitly.
+        System.exit(status);
+    }
+
+    private void run() throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(WebQuizEngine.class, applicationArguments());
+        try {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+            long seedStart = System.nanoTime();
+            seed(context);
+            double seedSeconds = (System.nanoTime() - seedStart) / 1e9;
+
+            drive(warmupSeconds, null);
+            Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                recorders.put(operation, new Recorder());
+            }
+            drive(durationSeconds, recorders);
+            writeResults(recorders, seedSeconds);
+        } finally {
+            context.close();
+        }
+    }
+
+    private String[] applicationArguments() throws IOException {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--quiz.rate-limit.enabled=false",
+                "--quiz.completion-log.directory=" + Files.createTempDirectory("completionlog")));
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(APP_PROPERTY_PREFIX)) {
+                arguments.add("--" + name.substring(APP_PROPERTY_PREFIX.length()) + "=" + System.getProperty(name));
+            }
+        }
+        return arguments.toArray(new String[0]);
+    }
+
+    /**
+     * Seeds the database through the repositories and services, bypassing HTTP. Users share one
+     * password hash so that seeding does not pay for a BCrypt encoding per user.
+     */
+    private void seed(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        QuizzService quizzService = context.getBean(QuizzService.class);
+        QuizCompletionService quizCompletionService = context.getBean(QuizCompletionService.class);
+        TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        String hash = context.getBean(PasswordEncoder.class).encode(Fixtures.PASSWORD);
+
+        List<User> seededUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@bench.test");
+            user.setPassword(hash);
+            seededUsers.add(user);
+            authorizations.add(basic(user.getEmail()));
+        }
+        seededUsers = userRepository.saveAll(seededUsers);
+
+        List<Quiz> seededQuizzes = new ArrayList<>();
+        for (int start = 0; start < quizzes; start += 1_000) {
+            int from = start;
+            List<User> owners = seededUsers;
+            transaction.executeWithoutResult(status -> {
+                for (int i = from; i < Math.min(from + 1_000, quizzes); i++) {
+                    Quiz quiz = quizzService.createQuiz(Fixtures.quiz(null), owners.get(i % owners.size()));
+                    seededQuizzes.add(quiz);
+                    quizIds.add(quiz.getId());
+                }
+            });
+        }
+
+        Random random = new Random(42);
+        for (int start = 0; start < completions; start += 1_000) {
+            int from = start;
+            List<User> owners = seededUsers;
+            transaction.executeWithoutResult(status -> {
+                for (int i = from; i < Math.min(from + 1_000, completions); i++) {
+                    quizCompletionService.createCompleted(owners.get(random.nextInt(owners.size())),
+                            seededQuizzes.get(random.nextInt(seededQuizzes.size())));
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the operation mix from all client threads for the given time.
+     *
+     * @param seconds   How long to run.
+     * @param recorders Where to record latencies, or null to discard them.
+     */
+    private void drive(int seconds, Map<Operation, Recorder> recorders) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    Operation operation = pick(random);
+                    HttpRequest request = request(operation, random);
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        ok = status >= 200 && status < 300;
+                    } catch (IOException e) {
+                        ok = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (recorders != null) {
+                        recorders.get(operation).record(System.nanoTime() - start, ok);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = random.nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    private HttpRequest request(Operation operation, ThreadLocalRandom random) {
+        String authorization = authorizations.get(random.nextInt(authorizations.size()));
+        switch (operation) {
+            case REGISTER:
+                String email = "registered" + registrations.incrementAndGet() + "@bench.test";
+                return post("/register", "{\"email\":\"" + email + "\",\"password\":\"" + Fixtures.PASSWORD + "\"}", null);
+            case CREATE:
+                return post("/quizzes", Fixtures.quizJson(random.nextLong()), authorization);
+            case LIST:
+                return get("/quizzes?page=" + random.nextInt(Math.max(1, quizzes / 10)), authorization);
+            case SOLVE:
+                long quizId = quizIds.get(random.nextInt(quizIds.size()));
+                return post("/quizzes/" + quizId + "/solve", "{\"answer\":[" + random.nextInt(4) + "]}", authorization);
+            case COMPLETED:
+                return get("/quizzes/completed?page=" + random.nextInt(3), authorization);
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private HttpRequest post(String path, String body, String authorization) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest get(String path, String authorization) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+    }
+
+    private static String basic(String email) {
+        String credentials = email + ":" + Fixtures.PASSWORD;
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeResults(Map<Operation, Recorder> recorders, double seedSeconds) throws IOException {
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("users", users);
+        configuration.put("quizzes", quizzes);
+        configuration.put("completions", completions);
+        configuration.put("threads", threads);
+        configuration.put("warmupSeconds", warmupSeconds);
+        configuration.put("durationSeconds", durationSeconds);
+        configuration.put("mix", mix);
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        long totalRequests = 0;
+        for (Map.Entry<Operation, Recorder> entry : recorders.entrySet()) {
+            Recorder recorder = entry.getValue();
+            if (recorder.count() > 0) {
+                operations.put(entry.getKey().name().toLowerCase(Locale.ROOT), recorder.summary(durationSeconds));
+                totalRequests += recorder.count();
+            }
+        }
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("configuration", configuration);
+        results.put("seedSeconds", seedSeconds);
+        results.put("throughputPerSecond", (double) totalRequests / durationSeconds);
+        results.put("operations", operations);
+
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+        System.out.println("Macro benchmark results written to " + output.getAbsolutePath());
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split("=");
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Collects the latencies of one operation from all client threads.
+     */
+    private static final class Recorder {
+        private final ConcurrentLinkedQueue<long[]> chunks = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<long[]> current = new ThreadLocal<>();
+        private final ThreadLocal<int[]> position = ThreadLocal.withInitial(() -> new int[1]);
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong count = new AtomicLong();
+
+        void record(long nanos, boolean ok) {
+            long[] chunk = current.get();
+            int[] index = position.get();
+            if (chunk == null || index[0] == chunk.length) {
+                chunk = new long[4096];
+                Arrays.fill(chunk, -1);
+                current.set(chunk);
+                chunks.add(chunk);
+                index[0] = 0;
+            }
+            chunk[index[0]++] = nanos;
+            count.incrementAndGet();
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        long count() {
+            return count.get();
+        }
+
+        Map<String, Object> summary(int durationSeconds) {
+            long[] latencies = chunks.stream()
+                    .flatMapToLong(Arrays::stream)
+                    .filter(nanos -> nanos >= 0)
+                    .sorted()
+                    .toArray();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", latencies.length);
+            summary.put("errors", errors.get());
+            summary.put("throughputPerSecond", (double) latencies.length / durationSeconds);
+            summary.put("p50Millis", percentile(latencies, 0.50));
+            summary.put("p90Millis", percentile(latencies, 0.90));
+            summary.put("p99Millis", percentile(latencies, 0.99));
+            summary.put("p999Millis", percentile(latencies, 0.999));
+            summary.put("maxMillis", latencies[latencies.length - 1] / 1e6);
+            return summary;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
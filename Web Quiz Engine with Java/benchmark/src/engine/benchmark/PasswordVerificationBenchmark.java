@@ -0,0 +1,32 @@
+package engine.benchmark;
+
+import engine.config.PasswordConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures verifying a password with the application's encoder, which every HTTP Basic
+ * authenticated request pays for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PasswordVerificationBenchmark {
+    private final PasswordEncoder encoder = new PasswordConfig().passwordEncoder();
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        hash = encoder.encode(Fixtures.PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return encoder.matches(Fixtures.PASSWORD, hash);
+    }
+}
@@ -0,0 +1,40 @@
+package engine.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import engine.model.Quiz;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a {@link Quiz} as JSON, as done for every quiz returned by the API,
+ * and reading one back, as done for every created quiz.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuizSerializationBenchmark {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Quiz quiz;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        quiz = Fixtures.quiz(1L);
+        json = mapper.writeValueAsBytes(quiz);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(quiz);
+    }
+
+    @Benchmark
+    public Quiz deserialize() throws Exception {
+        return mapper.readValue(json, Quiz.class);
+    }
+}
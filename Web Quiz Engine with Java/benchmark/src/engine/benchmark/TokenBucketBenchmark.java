@@ -0,0 +1,43 @@
+package engine.benchmark;
+
+import engine.filter.TokenBucket;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures acquiring rate limit tokens from many threads at once, both when all threads hit the
+ * same bucket (one abusive user) and when every thread has its own bucket (many distinct users).
+ * The refill rate is high enough that requests are never rejected, so the benchmark measures the
+ * compare-and-set path under contention.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class TokenBucketBenchmark {
+    private static final int CAPACITY = 1_000_000;
+    private static final double REFILL_PER_SECOND = 1e9;
+
+    @State(Scope.Benchmark)
+    public static class SharedBucket {
+        final TokenBucket bucket = new TokenBucket(CAPACITY, REFILL_PER_SECOND, System.nanoTime());
+    }
+
+    @State(Scope.Thread)
+    public static class OwnBucket {
+        final TokenBucket bucket = new TokenBucket(CAPACITY, REFILL_PER_SECOND, System.nanoTime());
+    }
+
+    @Benchmark
+    public long contended(SharedBucket state) {
+        return state.bucket.tryAcquire(System.nanoTime());
+    }
+
+    @Benchmark
+    public long uncontended(OwnBucket state) {
+        return state.bucket.tryAcquire(System.nanoTime());
+    }
+}
@@ -0,0 +1,135 @@
+package engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the schema keyed by user email with the schema keyed by numeric user ID on a completion
+ * table of {@code completions} rows. Each trial builds one schema in a file-based H2 database, writes
+ * the on-disk size of the user and completion tables, indexes included, to
+ * {@code build/results/user-key-<keying>.json}, then measures the two queries the completion history
+ * and the owner check run: a page of a user's completions joined to the user, and the count of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserKeyJoinBenchmark {
+    private static final int USERS = 10_000;
+    private static final int QUIZZES = 1_000;
+
+    @Param({"EMAIL", "ID"})
+    private String keying;
+
+    @Param({"1000000"})
+    private int completions;
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement page;
+    private PreparedStatement count;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("user-key-" + keying);
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("db"), "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            if (keying.equals("EMAIL")) {
+                statement.execute("CREATE TABLE APP_USER (EMAIL VARCHAR(255) PRIMARY KEY, PASSWORD VARCHAR(255) NOT NULL)");
+                statement.execute("CREATE TABLE QUIZ_COMPLETION (ID BIGINT AUTO_INCREMENT PRIMARY KEY, COMPLETED_AT TIMESTAMP, "
+                        + "QUIZ_ID BIGINT, USER_ID VARCHAR(255) REFERENCES APP_USER(EMAIL))");
+                statement.execute("INSERT INTO APP_USER SELECT 'user' || X || '@bench.test', 'password' FROM SYSTEM_RANGE(1, " + USERS + ")");
+                statement.execute("INSERT INTO QUIZ_COMPLETION (COMPLETED_AT, QUIZ_ID, USER_ID) "
+                        + "SELECT DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), MOD(X, " + QUIZZES + ") + 1, "
+                        + "'user' || (MOD(X * 7919, " + USERS + ") + 1) || '@bench.test' FROM SYSTEM_RANGE(1, " + completions + ")");
+                page = connection.prepareStatement("SELECT c.QUIZ_ID, c.COMPLETED_AT FROM QUIZ_COMPLETION c "
+                        + "JOIN APP_USER u ON u.EMAIL = c.USER_ID WHERE u.EMAIL = ? ORDER BY c.COMPLETED_AT DESC LIMIT 10");
+                count = connection.prepareStatement("SELECT COUNT(*) FROM QUIZ_COMPLETION c "
+                        + "JOIN APP_USER u ON u.EMAIL = c.USER_ID WHERE u.EMAIL = ?");
+            } else {
+                statement.execute("CREATE TABLE APP_USER (ID BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                        + "EMAIL VARCHAR(255) NOT NULL UNIQUE, PASSWORD VARCHAR(255) NOT NULL)");
+                statement.execute("CREATE TABLE QUIZ_COMPLETION (ID BIGINT AUTO_INCREMENT PRIMARY KEY, COMPLETED_AT TIMESTAMP, "
+                        + "QUIZ_ID BIGINT, USER_ID BIGINT REFERENCES APP_USER(ID))");
+                statement.execute("INSERT INTO APP_USER (ID, EMAIL, PASSWORD) "
+                        + "SELECT X, 'user' || X || '@bench.test', 'password' FROM SYSTEM_RANGE(1, " + USERS + ")");
+                statement.execute("INSERT INTO QUIZ_COMPLETION (COMPLETED_AT, QUIZ_ID, USER_ID) "
+                        + "SELECT DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), MOD(X, " + QUIZZES + ") + 1, "
+                        + "MOD(X * 7919, " + USERS + ") + 1 FROM SYSTEM_RANGE(1, " + completions + ")");
+                page = connection.prepareStatement("SELECT c.QUIZ_ID, c.COMPLETED_AT FROM QUIZ_COMPLETION c "
+                        + "JOIN APP_USER u ON u.ID = c.USER_ID WHERE u.ID = ? ORDER BY c.COMPLETED_AT DESC LIMIT 10");
+                count = connection.prepareStatement("SELECT COUNT(*) FROM QUIZ_COMPLETION c "
+                        + "JOIN APP_USER u ON u.ID = c.USER_ID WHERE u.ID = ?");
+            }
+            statement.execute("CHECKPOINT SYNC");
+        }
+        writeSizes();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public int completionPage() throws SQLException {
+        bindRandomUser(page);
+        int rows = 0;
+        try (ResultSet result = page.executeQuery()) {
+            while (result.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public long completionCount() throws SQLException {
+        bindRandomUser(count);
+        try (ResultSet result = count.executeQuery()) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private void bindRandomUser(PreparedStatement statement) throws SQLException {
+        int user = ThreadLocalRandom.current().nextInt(USERS) + 1;
+        if (keying.equals("EMAIL")) {
+            statement.setString(1, "user" + user + "@bench.test");
+        } else {
+            statement.setLong(1, user);
+        }
+    }
+
+    private void writeSizes() throws SQLException, IOException {
+        Map<String, Object> sizes = new LinkedHashMap<>();
+        sizes.put("keying", keying);
+        sizes.put("completions", completions);
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT DISK_SPACE_USED('APP_USER'), DISK_SPACE_USED('QUIZ_COMPLETION')")) {
+            result.next();
+            sizes.put("userTableBytes", result.getLong(1));
+            sizes.put("completionTableBytes", result.getLong(2));
+        }
+        File output = new File("build/results/user-key-" + keying.toLowerCase() + ".json");
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, sizes);
+    }
+}
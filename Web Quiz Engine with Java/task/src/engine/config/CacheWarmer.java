@@ -0,0 +1,94 @@
+package engine.config;
+
+import engine.service.QuizCompletionService;
+import engine.service.QuizzService;
+import engine.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fills the in-memory caches at startup: the most completed quizzes go into the quiz cache and the
+ * most recently active users into the user cache, loaded in parallel chunks. Application runners
+ * complete before Spring Boot reports the application ready, so the readiness state seen by
+ * {@code /actuator/health} stays out of service until the warm-up is done.
+ */
+@Component
+@ConditionalOnProperty(name = "quiz.warmup.enabled", havingValue = "true")
+public class CacheWarmer implements ApplicationRunner {
+    private final QuizzService quizzService;
+    private final UserService userService;
+    private final QuizCompletionService quizCompletionService;
+    private final Timer warmupTimer;
+    private final int quizCount;
+    private final int userCount;
+    private final int threads;
+    private final int chunkSize;
+
+    /**
+     * Constructs a CacheWarmer.
+     *
+     * @param quizzService          Service used to load quizzes into the quiz cache.
+     * @param userService           Service used to load users into the user cache.
+     * @param quizCompletionService Service used to rank quizzes and users by their completions.
+     * @param meterRegistry         Registry for the warm-up duration metric.
+     * @param quizCount             The number of most completed quizzes to preload.
+     * @param userCount             The number of most recently active users to preload.
+     * @param threads               The number of threads loading in parallel.
+     * @param chunkSize             The number of entities loaded per query.
+     */
+    public CacheWarmer(QuizzService quizzService, UserService userService, QuizCompletionService quizCompletionService,
+                       MeterRegistry meterRegistry,
+                       @Value("${quiz.warmup.quizzes:1000}") int quizCount,
+                       @Value("${quiz.warmup.users:10000}") int userCount,
+                       @Value("${quiz.warmup.threads:4}") int threads,
+                       @Value("${quiz.warmup.chunk-size:100}") int chunkSize) {
+        this.quizzService = quizzService;
+        this.userService = userService;
+        this.quizCompletionService = quizCompletionService;
+        this.warmupTimer = meterRegistry.timer("quiz.startup.warmup");
+        this.quizCount = quizCount;
+        this.userCount = userCount;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmupTimer.record(this::warmUp);
+    }
+
+    private void warmUp() {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (List<Long> ids : chunks(quizCompletionService.findMostCompletedQuizIds(quizCount))) {
+                tasks.add(CompletableFuture.runAsync(() -> quizzService.preloadQuizzes(ids), executor));
+            }
+            for (List<Long> ids : chunks(quizCompletionService.findRecentlyActiveUserIds(userCount))) {
+                tasks.add(CompletableFuture.runAsync(() -> userService.preloadUsers(ids), executor));
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            chunks.add(ids.subList(i, Math.min(i + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+}
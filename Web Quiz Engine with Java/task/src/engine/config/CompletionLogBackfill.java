@@ -0,0 +1,77 @@
+package engine.config;
+
+import engine.repository.CompletionLog;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Copies the completions stored in the {@code QUIZ_COMPLETION} table into the {@link CompletionLog}
+ * the first time the log is enabled, so switching to the log does not hide any history. Once the log
+ * is enabled the table receives no new rows, so a single copy is enough and reads never go back to it.
+ * <p>
+ * Rows are copied in ID order, in chunks, before the web server starts accepting requests. An
+ * interrupted backfill resumes after the rows the log already holds.
+ */
+@Component
+@ConditionalOnProperty(name = "quiz.completion-log.enabled", havingValue = "true")
+public class CompletionLogBackfill implements SmartInitializingSingleton {
+    private final CompletionLog completionLog;
+    private final UserIdMigration userIdMigration;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbc;
+    private final int chunkSize;
+
+    /**
+     * Constructs a CompletionLogBackfill.
+     *
+     * @param completionLog        The log to fill.
+     * @param userIdMigration      The migration that has to move legacy completions into the table first.
+     * @param entityManagerFactory The entity manager factory whose schema update creates the table.
+     * @param dataSource           The application's data source.
+     * @param chunkSize            The number of rows read per query.
+     */
+    public CompletionLogBackfill(CompletionLog completionLog, UserIdMigration userIdMigration,
+                                 EntityManagerFactory entityManagerFactory, DataSource dataSource,
+                                 @Value("${quiz.completion-log.backfill-chunk-size:1000}") int chunkSize) {
+        this.completionLog = completionLog;
+        this.userIdMigration = userIdMigration;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!completionLog.startBackfill()) {
+            return;
+        }
+        // Blocks until a background JPA bootstrap has finished updating the schema.
+        entityManagerFactory.getMetamodel();
+        userIdMigration.migrate();
+        long copied = completionLog.size();
+        long lastId = copied == 0 ? 0 : jdbc.queryForObject(
+                "SELECT ID FROM QUIZ_COMPLETION ORDER BY ID LIMIT 1 OFFSET ?", Long.class, copied - 1);
+        while (true) {
+            List<long[]> rows = jdbc.query("SELECT ID, USER_ID, QUIZ_ID, COMPLETED_AT FROM QUIZ_COMPLETION "
+                            + "WHERE ID > ? ORDER BY ID LIMIT ?",
+                    (result, rowNum) -> new long[]{result.getLong(1), result.getLong(2), result.getLong(3),
+                            result.getTimestamp(4).getTime()},
+                    lastId, chunkSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (long[] row : rows) {
+                completionLog.append(row[1], row[2], row[3]);
+            }
+            lastId = rows.get(rows.size() - 1)[0];
+        }
+        completionLog.finishBackfill();
+    }
+}
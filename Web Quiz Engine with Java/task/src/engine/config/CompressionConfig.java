@@ -0,0 +1,42 @@
+package engine.config;
+
+import engine.filter.BufferPool;
+import engine.filter.CompressionFilter;
+import engine.filter.ResponseCompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "quiz.compression.enabled", havingValue = "true")
+public class CompressionConfig {
+    @Bean
+    public BufferPool responseBufferPool(@Value("${quiz.compression.pool-size:64}") int poolSize) {
+        return new BufferPool(poolSize, 8 * 1024, 256 * 1024);
+    }
+
+    @Bean
+    public ResponseCompressor responseCompressor(BufferPool responseBufferPool,
+                                                 @Value("${quiz.compression.level:6}") int level,
+                                                 @Value("${quiz.compression.pool-size:64}") int poolSize) {
+        return new ResponseCompressor(responseBufferPool, level, poolSize);
+    }
+
+    /**
+     * Compresses the list endpoints, which return the largest bodies. It runs after the security
+     * filter chain, so rejected requests are never buffered.
+     */
+    @Bean
+    public FilterRegistrationBean<CompressionFilter> compressionFilter(ResponseCompressor responseCompressor,
+                                                                       BufferPool responseBufferPool,
+                                                                       @Value("${quiz.compression.min-response-size:1024}") int minResponseSize) {
+        FilterRegistrationBean<CompressionFilter> registration =
+                new FilterRegistrationBean<>(new CompressionFilter(responseCompressor, responseBufferPool, minResponseSize));
+        registration.addUrlPatterns("/api/quizzes", "/api/quizzes/completed");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
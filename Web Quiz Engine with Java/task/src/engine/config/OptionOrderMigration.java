@@ -0,0 +1,91 @@
+package engine.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+
+/**
+ * Adds the {@code OPTIONS_ORDER} column to quiz options stored before the options list had an order
+ * column, and numbers the existing options within their quiz in the order their rows were inserted,
+ * which is the order the options were submitted in.
+ * <p>
+ * The order column is part of the collection table's primary key, so Hibernate would add it as
+ * {@code NOT NULL} and leave nothing to tell the old rows apart. The migration therefore runs before
+ * the entity manager factory starts: it adds the column as nullable, numbers the rows by
+ * {@code _ROWID_} in chunks of quiz IDs, and only then makes the column {@code NOT NULL}, so Hibernate
+ * finds the schema already up to date. It runs under every profile, including {@code prod}, where
+ * Hibernate does not touch the schema. Only rows without an index are numbered, so the migration is a
+ * no-op once done and resumes if interrupted.
+ */
+@Component
+public class OptionOrderMigration {
+    private final JdbcTemplate jdbc;
+    private final int chunkSize;
+
+    /**
+     * Makes the entity manager factory wait for {@link OptionOrderMigration}, so the order column is
+     * filled before Hibernate inspects the schema.
+     */
+    @Component
+    public static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+        public EntityManagerFactoryDependsOnMigration() {
+            super("optionOrderMigration");
+        }
+    }
+
+    /**
+     * Constructs an OptionOrderMigration.
+     *
+     * @param dataSource The application's data source.
+     * @param chunkSize  The range of quiz IDs numbered per statement.
+     */
+    public OptionOrderMigration(DataSource dataSource, @Value("${quiz.option-order-migration.chunk-size:1000}") int chunkSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Adds and fills the order column, if the options table predates it.
+     */
+    @PostConstruct
+    public void prepare() {
+        if (!hasTable("QUIZ_OPTIONS")) {
+            return;
+        }
+        if (!hasColumn("QUIZ_OPTIONS", "OPTIONS_ORDER")) {
+            jdbc.execute("ALTER TABLE QUIZ_OPTIONS ADD COLUMN OPTIONS_ORDER INTEGER");
+        }
+        Long maxId = jdbc.queryForObject("SELECT MAX(QUIZ_ID) FROM QUIZ_OPTIONS WHERE OPTIONS_ORDER IS NULL", Long.class);
+        for (long lower = 0; maxId != null && lower < maxId; lower += chunkSize) {
+            jdbc.update("UPDATE QUIZ_OPTIONS o SET OPTIONS_ORDER = (SELECT COUNT(*) FROM QUIZ_OPTIONS p "
+                    + "WHERE p.QUIZ_ID = o.QUIZ_ID AND p._ROWID_ < o._ROWID_) "
+                    + "WHERE o.QUIZ_ID > ? AND o.QUIZ_ID <= ? AND o.OPTIONS_ORDER IS NULL", lower, lower + chunkSize);
+        }
+        if (isNullable("QUIZ_OPTIONS", "OPTIONS_ORDER")) {
+            jdbc.execute("ALTER TABLE QUIZ_OPTIONS ALTER COLUMN OPTIONS_ORDER SET NOT NULL");
+        }
+    }
+
+    private boolean hasTable(String table) {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ?", Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    private boolean hasColumn(String table, String column) {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? AND COLUMN_NAME = ?", Integer.class, table, column);
+        return count != null && count > 0;
+    }
+
+    private boolean isNullable(String table, String column) {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? AND COLUMN_NAME = ? AND IS_NULLABLE = 'YES'",
+                Integer.class, table, column);
+        return count != null && count > 0;
+    }
+}
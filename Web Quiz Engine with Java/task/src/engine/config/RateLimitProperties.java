@@ -0,0 +1,36 @@
+package engine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request throttling settings, bound from the {@code quiz.rate-limit} properties.
+ * Each rule limits the requests matching a method and path, either per user or per client IP.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "quiz.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private int maxBuckets = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private List<Rule> rules = new ArrayList<>();
+
+    public enum Key {
+        USER, IP
+    }
+
+    @Data
+    public static class Rule {
+        private String method;
+        private String path;
+        private Key key = Key.USER;
+        private int capacity = 10;
+        private double refillPerSecond = 1;
+    }
+}
@@ -1,5 +1,6 @@
 package engine.config;
 
+import engine.filter.RateLimitFilter;
 import engine.service.UserService;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,15 +12,18 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 @EnableWebSecurity
 @Configuration
 public class SecurityConfig {
     private final UserService service;
+    private final RateLimitProperties rateLimitProperties;
     @Autowired
-    public SecurityConfig(UserService service) {
+    public SecurityConfig(UserService service, RateLimitProperties rateLimitProperties) {
         this.service = service;
+        this.rateLimitProperties = rateLimitProperties;
     }
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -35,6 +39,9 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::disable))
                 .httpBasic(Customizer.withDefaults());
+        if (rateLimitProperties.isEnabled()) {
+            http.addFilterBefore(new RateLimitFilter(rateLimitProperties), BasicAuthenticationFilter.class);
+        }
         return http.build();
     }
 }
\ No newline at end of file
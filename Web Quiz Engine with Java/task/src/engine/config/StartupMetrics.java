@@ -0,0 +1,88 @@
+package engine.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports how long the application takes to start and to settle afterwards.
+ * <ul>
+ *     <li>{@code quiz.startup.time}: seconds from JVM start until the application is ready.</li>
+ *     <li>{@code quiz.startup.steady-state.time}: seconds from ready until the p99 latency of
+ *     {@code http.server.requests} stops moving by more than the configured tolerance between two
+ *     consecutive checks.</li>
+ *     <li>{@code quiz.startup.steady-state.p99}: the p99 latency, in seconds, at that point.</li>
+ * </ul>
+ * The p99 is the highest 0.99 percentile across the request timers, which requires
+ * {@code management.metrics.distribution.percentiles.http.server.requests=0.99}.
+ */
+@Component
+public class StartupMetrics {
+    private final MeterRegistry meterRegistry;
+    private final double tolerance;
+    private volatile double startupSeconds = Double.NaN;
+    private volatile double steadyStateSeconds = Double.NaN;
+    private volatile double steadyStateP99 = Double.NaN;
+    private volatile long readyAt;
+    private double previousP99 = Double.NaN;
+
+    /**
+     * Constructs StartupMetrics and registers its gauges.
+     *
+     * @param meterRegistry The registry holding the request timers and receiving the gauges.
+     * @param tolerance     The relative p99 change between two checks below which latency counts as steady.
+     */
+    public StartupMetrics(MeterRegistry meterRegistry, @Value("${quiz.startup.steady-state.tolerance:0.1}") double tolerance) {
+        this.meterRegistry = meterRegistry;
+        this.tolerance = tolerance;
+        Gauge.builder("quiz.startup.time", this, metrics -> metrics.startupSeconds).register(meterRegistry);
+        Gauge.builder("quiz.startup.steady-state.time", this, metrics -> metrics.steadyStateSeconds).register(meterRegistry);
+        Gauge.builder("quiz.startup.steady-state.p99", this, metrics -> metrics.steadyStateP99).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        readyAt = System.nanoTime();
+        startupSeconds = ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0;
+    }
+
+    /**
+     * Compares the current p99 request latency with the one of the previous check, until it settles.
+     */
+    @Scheduled(fixedDelayString = "${quiz.startup.steady-state.interval:10000}")
+    public void checkSteadyState() {
+        if (readyAt == 0 || !Double.isNaN(steadyStateSeconds)) {
+            return;
+        }
+        double p99 = currentP99();
+        if (Double.isNaN(p99)) {
+            return;
+        }
+        if (!Double.isNaN(previousP99) && Math.abs(p99 - previousP99) <= tolerance * previousP99) {
+            steadyStateP99 = p99;
+            steadyStateSeconds = (System.nanoTime() - readyAt) / 1e9;
+        }
+        previousP99 = p99;
+    }
+
+    private double currentP99() {
+        double p99 = Double.NaN;
+        for (Timer timer : meterRegistry.find("http.server.requests").timers()) {
+            for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                if (percentile.percentile() == 0.99 && (Double.isNaN(p99) || percentile.value(TimeUnit.SECONDS) > p99)) {
+                    p99 = percentile.value(TimeUnit.SECONDS);
+                }
+            }
+        }
+        return p99;
+    }
+}
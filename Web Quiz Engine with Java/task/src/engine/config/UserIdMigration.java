@@ -0,0 +1,144 @@
+package engine.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Migrates databases created while users were keyed by email to the numeric user ID schema.
+ * <p>
+ * Before Hibernate updates the schema, the legacy {@code USER} and {@code QUIZ_COMPLETION} tables are
+ * renamed out of the way so that Hibernate creates them afresh with numeric keys. Once every bean is
+ * created, and before the web server starts accepting requests, users are copied, quizzes are linked
+ * to their owner's new ID and completions are moved over in chunks, each chunk in its own short
+ * transaction, so no step holds locks on a whole table. Running before the server starts means no
+ * request can see a half-migrated user table, where a legacy user could not log in or their email
+ * could be registered again.
+ * <p>
+ * Every step is idempotent and the migration resumes where it stopped if the application is restarted.
+ */
+@Component
+public class UserIdMigration implements SmartInitializingSingleton {
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+
+    /**
+     * Makes the entity manager factory wait for {@link UserIdMigration}, so the legacy tables are moved
+     * aside before Hibernate inspects the schema.
+     */
+    @Component
+    public static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+        public EntityManagerFactoryDependsOnMigration() {
+            super("userIdMigration");
+        }
+    }
+
+    /**
+     * Constructs a UserIdMigration.
+     *
+     * @param dataSource The application's data source.
+     * @param chunkSize  The number of rows migrated per transaction.
+     */
+    public UserIdMigration(DataSource dataSource, @Value("${quiz.user-id-migration.chunk-size:1000}") int chunkSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Renames the email-keyed tables, if present, before the schema is updated.
+     */
+    @PostConstruct
+    public void prepare() {
+        if (hasTable("USER") && !hasColumn("USER", "ID")) {
+            jdbc.execute("ALTER TABLE \"USER\" RENAME TO LEGACY_USER");
+            if (hasTable("QUIZ_COMPLETION")) {
+                jdbc.execute("ALTER TABLE QUIZ_COMPLETION RENAME TO LEGACY_QUIZ_COMPLETION");
+            }
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrate();
+    }
+
+    /**
+     * Copies the data of the renamed tables into the new schema and drops them. Returns at once when
+     * there is nothing left to migrate, so steps that need the migrated rows may call it first.
+     */
+    public void migrate() {
+        if (!hasTable("LEGACY_USER")) {
+            return;
+        }
+        copyUsers();
+        linkQuizzes();
+        if (hasTable("LEGACY_QUIZ_COMPLETION")) {
+            copyCompletions();
+            jdbc.execute("DROP TABLE LEGACY_QUIZ_COMPLETION");
+        }
+        jdbc.execute("DROP TABLE LEGACY_USER CASCADE");
+        jdbc.execute("ALTER TABLE QUIZ DROP COLUMN IF EXISTS EMAIL");
+    }
+
+    private void copyUsers() {
+        String last = "";
+        while (true) {
+            List<String> emails = jdbc.queryForList(
+                    "SELECT EMAIL FROM LEGACY_USER WHERE EMAIL > ? ORDER BY EMAIL LIMIT ?", String.class, last, chunkSize);
+            if (emails.isEmpty()) {
+                return;
+            }
+            String upper = emails.get(emails.size() - 1);
+            jdbc.update("INSERT INTO \"USER\" (EMAIL, PASSWORD) SELECT l.EMAIL, l.PASSWORD FROM LEGACY_USER l "
+                    + "WHERE l.EMAIL > ? AND l.EMAIL <= ? "
+                    + "AND NOT EXISTS (SELECT 1 FROM \"USER\" u WHERE u.EMAIL = l.EMAIL)", last, upper);
+            last = upper;
+        }
+    }
+
+    private void linkQuizzes() {
+        Long maxId = jdbc.queryForObject("SELECT MAX(ID) FROM QUIZ", Long.class);
+        for (long lower = 0; maxId != null && lower < maxId; lower += chunkSize) {
+            jdbc.update("UPDATE QUIZ q SET USER_ID = (SELECT u.ID FROM \"USER\" u WHERE u.EMAIL = q.EMAIL) "
+                    + "WHERE q.ID > ? AND q.ID <= ? AND q.USER_ID IS NULL", lower, lower + chunkSize);
+        }
+    }
+
+    private void copyCompletions() {
+        while (true) {
+            Long upper = jdbc.queryForObject("SELECT MAX(ID) FROM (SELECT ID FROM LEGACY_QUIZ_COMPLETION ORDER BY ID LIMIT ?)",
+                    Long.class, chunkSize);
+            if (upper == null) {
+                return;
+            }
+            transaction.executeWithoutResult(status -> {
+                jdbc.update("INSERT INTO QUIZ_COMPLETION (COMPLETED_AT, QUIZ_ID, USER_ID) "
+                        + "SELECT c.COMPLETED_AT, c.QUIZ_ID, u.ID FROM LEGACY_QUIZ_COMPLETION c "
+                        + "JOIN \"USER\" u ON u.EMAIL = c.USER_ID WHERE c.ID <= ?", upper);
+                jdbc.update("DELETE FROM LEGACY_QUIZ_COMPLETION WHERE ID <= ?", upper);
+            });
+        }
+    }
+
+    private boolean hasTable(String table) {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ?", Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    private boolean hasColumn(String table, String column) {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ? AND COLUMN_NAME = ?", Integer.class, table, column);
+        return count != null && count > 0;
+    }
+}
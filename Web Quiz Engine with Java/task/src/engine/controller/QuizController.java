@@ -1,23 +1,35 @@
 package engine.controller;
 
+import engine.model.CompactPage;
 import engine.model.Feedback;
 import engine.model.Quiz;
 import engine.model.QuizAnswer;
+import engine.model.QuizCompletion;
 import engine.model.User;
 import engine.service.QuizCompletionService;
 import engine.service.QuizzService;
 import engine.service.UserService;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
 public class QuizController {
+    /**
+     * Media type requesting the compact list representation, the same as {@code view=compact}.
+     */
+    public static final String COMPACT_MEDIA_TYPE = "application/vnd.quiz.compact+json";
+    private static final List<String> DEFAULT_COMPACT_FIELDS = List.of("id", "title");
+
     private final QuizzService quizzService;
     private final QuizCompletionService quizCompletionService;
     public QuizController(QuizzService quizzService, UserService userService, QuizCompletionService quizCompletionService) {
@@ -31,9 +43,17 @@ public class QuizController {
     }
 
     @GetMapping("/quizzes")
-    public ResponseEntity<Page<Quiz>> getAllQuizzes(@RequestParam(defaultValue = "0") int page,
-                                                    @Min(10) @Max(30) @RequestParam(defaultValue = "10") int pageSize) {
-        return ResponseEntity.ok(quizzService.getAllQuizzes(page,pageSize));
+    public ResponseEntity<?> getAllQuizzes(@RequestParam(defaultValue = "0") int page,
+                                           @Min(10) @Max(30) @RequestParam(defaultValue = "10") int pageSize,
+                                           @RequestParam(required = false) String view,
+                                           @RequestParam(required = false) List<String> fields,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (fields == null && !isCompact(view, accept)) {
+            return ResponseEntity.ok(quizzService.getAllQuizzes(page,pageSize));
+        }
+        Page<Map<String, Object>> summaries = quizzService.getQuizSummaries(page, pageSize,
+                fields == null ? DEFAULT_COMPACT_FIELDS : fields);
+        return compact(CompactPage.of(summaries), accept);
     }
 
     @GetMapping("/quizzes/{id}")
@@ -47,14 +67,31 @@ public class QuizController {
     }
     @DeleteMapping("/quizzes/{id}")
     public ResponseEntity<?> deleteQuiz(@PathVariable Long id, @AuthenticationPrincipal User user) {
-            quizzService.deleteQuiz(id, user.getEmail());
+            quizzService.deleteQuiz(id, user.getId());
             return ResponseEntity.noContent().build();
 
     }
     @GetMapping("/quizzes/completed")
     public ResponseEntity<?> quizzesCompleted(@RequestParam(defaultValue = "0") int page,
-                                              @Min(10) @Max(30) @RequestParam(defaultValue = "10") int pageSize, @AuthenticationPrincipal User user) {
-        return ResponseEntity.ok(quizCompletionService.findAllByUserEmail(user.getEmail(), page, pageSize));
+                                              @Min(10) @Max(30) @RequestParam(defaultValue = "10") int pageSize, @AuthenticationPrincipal User user,
+                                              @RequestParam(required = false) String view,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Page<QuizCompletion> completions = quizCompletionService.findAllByUserId(user.getId(), page, pageSize);
+        if (!isCompact(view, accept)) {
+            return ResponseEntity.ok(completions);
+        }
+        return compact(CompactPage.of(completions), accept);
+    }
+
+    private static boolean isCompact(String view, String accept) {
+        return "compact".equals(view) || (accept != null && accept.contains(COMPACT_MEDIA_TYPE));
+    }
+
+    private static ResponseEntity<?> compact(CompactPage<?> body, String accept) {
+        MediaType contentType = accept != null && accept.contains(COMPACT_MEDIA_TYPE)
+                ? MediaType.parseMediaType(COMPACT_MEDIA_TYPE)
+                : MediaType.APPLICATION_JSON;
+        return ResponseEntity.ok().contentType(contentType).body(body);
     }
 
 }
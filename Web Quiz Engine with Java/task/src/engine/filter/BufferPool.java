@@ -0,0 +1,100 @@
+package engine.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Bounded pool of growable byte buffers shared by all requests, so that buffering and compressing
+ * response bodies does not allocate fresh arrays for every request. Buffers that grew beyond the
+ * retained size are dropped on release instead of pinning memory in the pool.
+ */
+public class BufferPool {
+    private final Queue<PooledBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int maxPooled;
+    private final int initialSize;
+    private final int maxRetainedSize;
+
+    /**
+     * Constructs a BufferPool.
+     *
+     * @param maxPooled       The maximum number of idle buffers kept.
+     * @param initialSize     The capacity of newly allocated buffers.
+     * @param maxRetainedSize The largest capacity a buffer may have to be returned to the pool.
+     */
+    public BufferPool(int maxPooled, int initialSize, int maxRetainedSize) {
+        this.maxPooled = maxPooled;
+        this.initialSize = initialSize;
+        this.maxRetainedSize = maxRetainedSize;
+    }
+
+    /**
+     * Takes an empty buffer from the pool, allocating one if none is idle. Closing the buffer returns it.
+     *
+     * @return An empty buffer.
+     */
+    public PooledBuffer acquire() {
+        PooledBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return new PooledBuffer(this, initialSize);
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    private void release(PooledBuffer buffer) {
+        buffer.reset();
+        if (buffer.capacity() <= maxRetainedSize && pooled.incrementAndGet() <= maxPooled) {
+            buffers.offer(buffer);
+        } else if (buffer.capacity() <= maxRetainedSize) {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * Growable byte buffer exposing its backing array, returned to its pool when closed.
+     */
+    public static final class PooledBuffer extends ByteArrayOutputStream {
+        private final BufferPool pool;
+
+        private PooledBuffer(BufferPool pool, int size) {
+            super(size);
+            this.pool = pool;
+        }
+
+        /**
+         * @return The backing array; only the first {@link #size()} bytes are content.
+         */
+        public byte[] array() {
+            return buf;
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        /**
+         * Appends everything the deflater produces until it is finished, writing straight into the
+         * backing array.
+         *
+         * @param deflater A deflater whose input has been set and finished.
+         */
+        public synchronized void writeDeflated(Deflater deflater) {
+            while (!deflater.finished()) {
+                if (count == buf.length) {
+                    buf = Arrays.copyOf(buf, Math.max(buf.length * 2, 256));
+                }
+                count += deflater.deflate(buf, count, buf.length - count);
+            }
+        }
+
+        @Override
+        public void close() {
+            pool.release(this);
+        }
+    }
+}
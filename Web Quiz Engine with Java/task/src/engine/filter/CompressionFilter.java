@@ -0,0 +1,167 @@
+package engine.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+/**
+ * Compresses response bodies with gzip or deflate, as negotiated with the Accept-Encoding header.
+ * The body is buffered in a pooled buffer and only compressed when it is a successful JSON or text
+ * response of at least the configured size; small bodies, and bodies that compression would not
+ * make smaller, are sent as they are. Responses the handler ended with {@code sendError} are passed
+ * through untouched, so the container's error page is rendered with its own headers and body.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+    private final ResponseCompressor compressor;
+    private final BufferPool bufferPool;
+    private final int minResponseSize;
+
+    /**
+     * Constructs a CompressionFilter.
+     *
+     * @param compressor      The compressor producing the encoded bodies.
+     * @param bufferPool      The pool providing the buffers response bodies are captured in.
+     * @param minResponseSize The smallest body, in bytes, worth compressing.
+     */
+    public CompressionFilter(ResponseCompressor compressor, BufferPool bufferPool, int minResponseSize) {
+        this.compressor = compressor;
+        this.bufferPool = bufferPool;
+        this.minResponseSize = minResponseSize;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ResponseCompressor.Encoding encoding = ResponseCompressor.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (BufferPool.PooledBuffer body = bufferPool.acquire()) {
+            BufferingResponse buffering = new BufferingResponse(response, body);
+            chain.doFilter(request, buffering);
+            buffering.flushWriter();
+            if (buffering.isError() || response.isCommitted()) {
+                return;
+            }
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (isCompressible(response, body.size())) {
+                try (BufferPool.PooledBuffer compressed = compressor.compress(body.array(), body.size(), encoding)) {
+                    if (compressed.size() < body.size()) {
+                        response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+                        write(response, compressed);
+                        return;
+                    }
+                }
+            }
+            write(response, body);
+        }
+    }
+
+    private boolean isCompressible(HttpServletResponse response, int size) {
+        String contentType = response.getContentType();
+        return size >= minResponseSize
+                && response.getStatus() == HttpStatus.OK.value()
+                && response.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                && contentType != null
+                && (contentType.contains("json") || contentType.startsWith("text/"));
+    }
+
+    private static void write(HttpServletResponse response, BufferPool.PooledBuffer buffer) throws IOException {
+        response.setContentLength(buffer.size());
+        response.getOutputStream().write(buffer.array(), 0, buffer.size());
+    }
+
+    /**
+     * Response wrapper capturing the body in a buffer instead of sending it.
+     */
+    private static final class BufferingResponse extends HttpServletResponseWrapper {
+        private final ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private boolean error;
+
+        BufferingResponse(HttpServletResponse response, BufferPool.PooledBuffer body) {
+            super(response);
+            this.outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    body.write(b, off, len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    throw new UnsupportedOperationException("Asynchronous writes are not supported");
+                }
+            };
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() {
+            flushWriter();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            error = true;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            error = true;
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        boolean isError() {
+            return error;
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package engine.filter;
+
+import engine.config.RateLimitProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throttles requests with {@link TokenBucket}s keyed per user or per client IP, as configured by
+ * {@link RateLimitProperties}. It runs ahead of authentication, so a throttled request is answered
+ * with 429 before any password is verified or the database is touched.
+ * <p>
+ * IP rules are checked before user rules, so a client over its IP limit cannot create user buckets.
+ * A request is only let through when every matching rule allows it; the tokens taken from the buckets
+ * checked before a rejecting one are given back.
+ * <p>
+ * The user key is a hash of the whole Basic credential, which has not been verified at this point.
+ * Keying on the name alone would let anyone drain a real user's bucket by sending wrong passwords
+ * under their name; with the credential hash, such traffic only drains its own buckets and is held
+ * back by the IP rules.
+ * <p>
+ * Buckets are kept in a bounded map per rule. Idle buckets are swept periodically. When a map is
+ * full, a few buckets are sampled and the one closest to full is evicted to make room. Evicting a
+ * bucket can only hand its key a fresh allowance, so a flood of new keys, such as garbage credentials
+ * or rotating IPv6 addresses, never locks out the keys that had no bucket yet.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final List<LimitedEndpoint> endpoints = new ArrayList<>();
+    private final int maxBuckets;
+    private final long idleNanos;
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * Constructs a RateLimitFilter from the configured rules.
+     *
+     * @param properties The rate limiting settings.
+     */
+    public RateLimitFilter(RateLimitProperties properties) {
+        this.maxBuckets = properties.getMaxBuckets();
+        this.idleNanos = properties.getIdleTimeout().toNanos();
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            endpoints.add(new LimitedEndpoint(rule));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        List<TokenBucket> charged = new ArrayList<>(2);
+        long waitNanos = acquire(request, RateLimitProperties.Key.IP, now, charged);
+        if (waitNanos == 0) {
+            waitNanos = acquire(request, RateLimitProperties.Key.USER, now, charged);
+        }
+        if (waitNanos > 0) {
+            charged.forEach(TokenBucket::refund);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Takes a token from the bucket of every matching rule of the given key type.
+     *
+     * @param request The incoming request.
+     * @param keyType The type of rules to apply.
+     * @param now     The current {@link System#nanoTime()}.
+     * @param charged Collects the buckets a token was taken from.
+     * @return 0 if all rules allow the request, otherwise the nanoseconds to wait before retrying.
+     */
+    private long acquire(HttpServletRequest request, RateLimitProperties.Key keyType, long now, List<TokenBucket> charged) {
+        for (LimitedEndpoint endpoint : endpoints) {
+            if (endpoint.rule.getKey() != keyType || !endpoint.matcher.matches(request)) {
+                continue;
+            }
+            String key = keyType == RateLimitProperties.Key.IP ? request.getRemoteAddr() : credentialKey(request);
+            if (key == null) {
+                continue;
+            }
+            TokenBucket bucket = endpoint.bucketFor(key, now);
+            long waitNanos = bucket.tryAcquire(now);
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            charged.add(bucket);
+        }
+        return 0;
+    }
+
+    /**
+     * Hashes the Basic credential of a request without verifying it.
+     *
+     * @param request The incoming request.
+     * @return The hash of the credential, or null if the request carries no Basic credentials.
+     */
+    private static String credentialKey(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(header.substring(6).trim().getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last < idleNanos || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (LimitedEndpoint endpoint : endpoints) {
+            endpoint.evictIdle(now);
+        }
+    }
+
+    private final class LimitedEndpoint {
+        private final RateLimitProperties.Rule rule;
+        private final AntPathRequestMatcher matcher;
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+        LimitedEndpoint(RateLimitProperties.Rule rule) {
+            this.rule = rule;
+            this.matcher = new AntPathRequestMatcher(rule.getPath(), rule.getMethod());
+        }
+
+        /**
+         * Finds or creates the bucket of a key, evicting another bucket if the map is full.
+         */
+        TokenBucket bucketFor(String key, long now) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxBuckets) {
+                evictFullest();
+            }
+            return buckets.computeIfAbsent(key, k -> new TokenBucket(rule.getCapacity(), rule.getRefillPerSecond(), now));
+        }
+
+        /**
+         * Evicts the bucket holding the most tokens among a small sample of the map.
+         */
+        private void evictFullest() {
+            String fullest = null;
+            long fullestAt = Long.MAX_VALUE;
+            int sampled = 0;
+            for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+                long fullAt = entry.getValue().fullAt();
+                if (fullest == null || fullAt - fullestAt < 0) {
+                    fullest = entry.getKey();
+                    fullestAt = fullAt;
+                }
+                if (++sampled == EVICTION_SAMPLE) {
+                    break;
+                }
+            }
+            if (fullest != null) {
+                buckets.remove(fullest);
+            }
+        }
+
+        void evictIdle(long now) {
+            buckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now, idleNanos));
+        }
+    }
+}
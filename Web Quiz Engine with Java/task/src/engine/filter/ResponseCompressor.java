@@ -0,0 +1,123 @@
+package engine.filter;
+
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses response bodies as gzip or deflate. {@link Deflater}s hold native memory and are
+ * expensive to create, so they are pooled and reset between uses, like the output buffers which
+ * come from the shared {@link BufferPool}.
+ */
+public class ResponseCompressor {
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final BufferPool bufferPool;
+    private final int level;
+    private final int maxPooledDeflaters;
+    private final Queue<Deflater> gzipDeflaters = new ConcurrentLinkedQueue<>();
+    private final Queue<Deflater> zlibDeflaters = new ConcurrentLinkedQueue<>();
+
+    public enum Encoding {
+        GZIP("gzip"), DEFLATE("deflate");
+
+        private final String token;
+
+        Encoding(String token) {
+            this.token = token;
+        }
+
+        public String getToken() {
+            return token;
+        }
+    }
+
+    /**
+     * Constructs a ResponseCompressor.
+     *
+     * @param bufferPool         The pool providing output buffers.
+     * @param level              The deflate compression level, from 1 (fastest) to 9 (smallest).
+     * @param maxPooledDeflaters The maximum number of idle deflaters kept per encoding.
+     */
+    public ResponseCompressor(BufferPool bufferPool, int level, int maxPooledDeflaters) {
+        this.bufferPool = bufferPool;
+        this.level = level;
+        this.maxPooledDeflaters = maxPooledDeflaters;
+    }
+
+    /**
+     * Picks the encoding to use from an Accept-Encoding header, preferring gzip.
+     *
+     * @param acceptEncoding The Accept-Encoding header value, possibly null.
+     * @return The encoding to use, or null if the client accepts neither gzip nor deflate.
+     */
+    public static Encoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        boolean deflate = false;
+        for (String part : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (tokens.length > 1 && tokens[1].replace(" ", "").matches("q=0(\\.0*)?")) {
+                continue;
+            }
+            if (coding.equals("gzip")) {
+                return Encoding.GZIP;
+            }
+            deflate |= coding.equals("deflate");
+        }
+        return deflate ? Encoding.DEFLATE : null;
+    }
+
+    /**
+     * Compresses the first {@code length} bytes of {@code data}.
+     *
+     * @param data     The bytes to compress.
+     * @param length   The number of bytes to compress.
+     * @param encoding The output format.
+     * @return A pooled buffer holding the compressed bytes, to be closed by the caller.
+     */
+    public BufferPool.PooledBuffer compress(byte[] data, int length, Encoding encoding) {
+        Queue<Deflater> deflaters = encoding == Encoding.GZIP ? gzipDeflaters : zlibDeflaters;
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, encoding == Encoding.GZIP);
+        }
+        BufferPool.PooledBuffer out = bufferPool.acquire();
+        try {
+            if (encoding == Encoding.GZIP) {
+                out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+            }
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            out.writeDeflated(deflater);
+            if (encoding == Encoding.GZIP) {
+                CRC32 crc = new CRC32();
+                crc.update(data, 0, length);
+                writeIntLittleEndian(out, (int) crc.getValue());
+                writeIntLittleEndian(out, length);
+            }
+            return out;
+        } catch (RuntimeException e) {
+            out.close();
+            throw e;
+        } finally {
+            deflater.reset();
+            if (deflaters.size() < maxPooledDeflaters) {
+                deflaters.offer(deflater);
+            } else {
+                deflater.end();
+            }
+        }
+    }
+
+    private static void writeIntLittleEndian(BufferPool.PooledBuffer out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
@@ -0,0 +1,78 @@
+package engine.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count and a refill timestamp, the bucket keeps a single
+ * "theoretical arrival time": the instant at which the bucket would be full again. Taking a token
+ * pushes that instant one refill interval into the future, and a request is rejected when doing so
+ * would move it further than the bucket's capacity ahead of now. The whole state is one
+ * {@link AtomicLong}, so acquiring a token is a single compare-and-set with no allocation.
+ */
+public final class TokenBucket {
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * Constructs a full TokenBucket.
+     *
+     * @param capacity        The maximum number of tokens the bucket holds.
+     * @param refillPerSecond The number of tokens added back per second.
+     * @param now             The current {@link System#nanoTime()}.
+     */
+    public TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.nanosPerToken = (long) (1_000_000_000L / refillPerSecond);
+        this.burstNanos = capacity * nanosPerToken;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Tries to take one token.
+     *
+     * @param now The current {@link System#nanoTime()}.
+     * @return 0 if a token was taken, otherwise the number of nanoseconds until one is available.
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire(long)}, for a request that was rejected by
+     * another bucket after this one had already let it through.
+     */
+    public void refund() {
+        fullAt.addAndGet(-nanosPerToken);
+    }
+
+    /**
+     * Tells whether the bucket has been full and untouched for at least the given time, in which case
+     * dropping it is indistinguishable from keeping it.
+     *
+     * @param now       The current {@link System#nanoTime()}.
+     * @param idleNanos The idle time after which the bucket may be dropped.
+     * @return true if the bucket is idle.
+     */
+    public boolean isIdle(long now, long idleNanos) {
+        return now - fullAt.get() >= idleNanos;
+    }
+
+    /**
+     * Returns the instant at which the bucket is full again; the earlier, the more tokens it holds.
+     *
+     * @return The {@link System#nanoTime()} at which the bucket is full.
+     */
+    public long fullAt() {
+        return fullAt.get();
+    }
+}
@@ -0,0 +1,25 @@
+package engine.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Compact JSON form of a page: its content and the page counters, without the {@code pageable}
+ * and {@code sort} metadata serialized with a Spring {@link Page}.
+ */
+@Data
+@AllArgsConstructor
+public class CompactPage<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    public static <T> CompactPage<T> of(Page<T> page) {
+        return new CompactPage<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+    }
+}
@@ -25,6 +25,7 @@ public class Quiz {
 
     @NotNull(message = "Options are required")
     @ElementCollection
+    @OrderColumn
     @Size(min = 2)
     private List<String> options;
 
@@ -33,14 +34,18 @@ public class Quiz {
     private List<Integer> answer = new ArrayList<>();
 
     @JsonIgnore
-    @ManyToOne
-    @JoinColumn(name = "email")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
     private User user;
 
 
     @JsonIgnore
-    @OneToMany(mappedBy = "quiz",cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "quiz")
     private List<QuizCompletion> completions;
 
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean deleted;
+
 
 }
@@ -22,8 +22,12 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 @AllArgsConstructor
 public class User implements UserDetails {
     @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonIgnore
+    private Long id;
+
     @Email(regexp = ".+\\..+")
-    @Column(unique = true)
+    @Column(unique = true, nullable = false)
     @NotBlank
     private String email;
 
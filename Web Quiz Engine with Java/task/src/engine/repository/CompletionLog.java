@@ -0,0 +1,669 @@
+package engine.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only store for quiz completion events. Every completion is a fixed-width binary record
+ * (user id, quiz id, epoch millis, checksum) written into memory-mapped segment files, so
+ * recording a completion is a single buffer write instead of an H2 row insert.
+ * <p>
+ * An in-memory per-user index of record positions allows paging a user's history without scanning
+ * the log. The index is periodically snapshotted to disk; on startup the snapshot is loaded and only
+ * the records appended after it are scanned. Records after the first invalid checksum in the active
+ * segment are treated as a torn tail left by a crash and are zeroed.
+ * <p>
+ * Each segment starts with a header holding a magic number and the record format version, and the
+ * snapshot carries its own magic number and version. A log written in another format is refused at
+ * startup rather than read back with its fields misinterpreted.
+ * <p>
+ * A log opened empty on a database that already holds completions is filled from them once, see
+ * {@link #startBackfill()}. While a backfill is in progress a marker file sits next to the segments,
+ * and the log always holds a prefix of the copied rows, so an interrupted backfill resumes after the
+ * records that survived.
+ */
+@Repository
+@ConditionalOnProperty(name = "quiz.completion-log.enabled", havingValue = "true")
+public class CompletionLog {
+    static final int RECORD_SIZE = 24;
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_SIZE = RECORD_SIZE;
+    private static final int SEGMENT_MAGIC = 0x51434c47;
+    private static final int SNAPSHOT_MAGIC = 0x51434c32;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_FILE = "index.snapshot";
+    private static final String BACKFILL_FILE = "backfill.pending";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock compactionLock = new ReentrantLock();
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final List<Integer> segmentCounts = new ArrayList<>();
+    private final Map<Integer, PositionList> userIndex = new HashMap<>();
+    private boolean dirty;
+
+    /**
+     * A single completion event read back from the log.
+     */
+    public static final class Entry {
+        private final long quizId;
+        private final long completedAt;
+
+        Entry(long quizId, long completedAt) {
+            this.quizId = quizId;
+            this.completedAt = completedAt;
+        }
+
+        public long getQuizId() {
+            return quizId;
+        }
+
+        public long getCompletedAt() {
+            return completedAt;
+        }
+    }
+
+    /**
+     * Opens the log in the given directory, recovering the index from the latest snapshot and the
+     * records written after it.
+     *
+     * @param directory      Directory holding the segment files and the snapshot.
+     * @param segmentRecords Number of records each segment file holds.
+     * @throws IOException if the log files cannot be opened or mapped.
+     */
+    public CompletionLog(@Value("${quiz.completion-log.directory:../completionlog}") String directory,
+                         @Value("${quiz.completion-log.segment-records:65536}") int segmentRecords) throws IOException {
+        this.directory = Paths.get(directory);
+        this.segmentRecords = segmentRecords;
+        Files.createDirectories(this.directory);
+        recover();
+    }
+
+    /**
+     * Appends a completion event for a user.
+     *
+     * @param userId      The ID of the user who completed the quiz.
+     * @param quizId      The ID of the completed quiz.
+     * @param completedAt The completion time in epoch milliseconds.
+     */
+    public void append(long userId, long quizId, long completedAt) {
+        int userOrdinal = Math.toIntExact(userId);
+        lock.writeLock().lock();
+        try {
+            int segment = segments.size() - 1;
+            int slot = segmentCounts.get(segment);
+            if (slot == segmentRecords) {
+                segment = openSegment(segments.size());
+                slot = 0;
+            }
+            writeRecord(segments.get(segment), slot, userOrdinal, quizId, completedAt);
+            segmentCounts.set(segment, slot + 1);
+            userIndex.computeIfAbsent(userOrdinal, k -> new PositionList()).add(position(segment, slot));
+            dirty = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to append to completion log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads one page of a user's completions, newest first. Completions of quizzes rejected by
+     * {@code visibleQuiz}, such as deleted quizzes whose records have not been compacted away yet,
+     * are skipped and do not count towards the offset.
+     *
+     * @param userId      The ID of the user whose completions are read.
+     * @param offset      The number of newest visible completions to skip.
+     * @param limit       The maximum number of completions to return.
+     * @param visibleQuiz Tells whether completions of the given quiz ID should be listed.
+     * @return The completions on the requested page.
+     */
+    public List<Entry> findByUser(long userId, long offset, int limit, LongPredicate visibleQuiz) {
+        lock.readLock().lock();
+        try {
+            PositionList positions = userIndex.get(Math.toIntExact(userId));
+            if (positions == null || offset >= positions.size) {
+                return Collections.emptyList();
+            }
+            List<Entry> entries = new ArrayList<>(limit);
+            long skipped = 0;
+            for (int i = positions.size - 1; i >= 0 && entries.size() < limit; i--) {
+                long position = positions.values[i];
+                ByteBuffer buffer = segments.get(segmentOf(position));
+                int base = offset(slotOf(position));
+                long quizId = buffer.getLong(base + 4);
+                if (!visibleQuiz.test(quizId)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                entries.add(new Entry(quizId, buffer.getLong(base + 12)));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts every completion recorded for a user, straight from the index.
+     *
+     * @param userId The ID of the user.
+     * @return The number of completions in the log for the user.
+     */
+    public long countByUser(long userId) {
+        lock.readLock().lock();
+        try {
+            PositionList positions = userIndex.get(Math.toIntExact(userId));
+            return positions == null ? 0 : positions.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the completions recorded for a user, leaving out those rejected by {@code visibleQuiz}.
+     * Every record of the user is read, so prefer {@link #countByUser(long)} when nothing is hidden.
+     *
+     * @param userId      The ID of the user.
+     * @param visibleQuiz Tells whether completions of the given quiz ID should be counted.
+     * @return The number of visible completions in the log for the user.
+     */
+    public long countByUser(long userId, LongPredicate visibleQuiz) {
+        lock.readLock().lock();
+        try {
+            PositionList positions = userIndex.get(Math.toIntExact(userId));
+            if (positions == null) {
+                return 0;
+            }
+            long count = 0;
+            for (int i = 0; i < positions.size; i++) {
+                long position = positions.values[i];
+                if (visibleQuiz.test(segments.get(segmentOf(position)).getLong(offset(slotOf(position)) + 4))) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the quizzes with the most completions by scanning the whole log.
+     *
+     * @param limit The maximum number of quiz IDs to return.
+     * @return The IDs of the most completed quizzes, most completed first.
+     */
+    public List<Long> findMostCompletedQuizIds(int limit) {
+        Map<Long, Integer> counts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (int segment = 0; segment < segments.size(); segment++) {
+                ByteBuffer buffer = segments.get(segment);
+                for (int slot = 0; slot < segmentCounts.get(segment); slot++) {
+                    counts.merge(buffer.getLong(offset(slot) + 4), 1, Integer::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> quizIds = new ArrayList<>(counts.keySet());
+        quizIds.sort(Comparator.comparing(counts::get, Comparator.reverseOrder()));
+        return quizIds.subList(0, Math.min(limit, quizIds.size()));
+    }
+
+    /**
+     * Finds the users who completed a quiz most recently, using the position of their last record.
+     *
+     * @param limit The maximum number of user IDs to return.
+     * @return The IDs of the most recently active users, most recent first.
+     */
+    public List<Long> findRecentlyActiveUserIds(int limit) {
+        Map<Long, Long> lastPositions = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            userIndex.forEach((userId, positions) -> lastPositions.put((long) userId, positions.values[positions.size - 1]));
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> userIds = new ArrayList<>(lastPositions.keySet());
+        userIds.sort(Comparator.comparing(lastPositions::get, Comparator.reverseOrder()));
+        return userIds.subList(0, Math.min(limit, userIds.size()));
+    }
+
+    /**
+     * Counts every record in the log.
+     *
+     * @return The number of records across all segments.
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            long size = 0;
+            for (int count : segmentCounts) {
+                size += count;
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tells whether existing completions have to be copied into the log, marking the backfill as in
+     * progress when the log is still empty. A backfill interrupted earlier is reported again, and
+     * {@link #size()} then tells how many rows were already copied.
+     *
+     * @return boolean True if a backfill has to run or resume.
+     */
+    public boolean startBackfill() {
+        lock.writeLock().lock();
+        try {
+            Path marker = directory.resolve(BACKFILL_FILE);
+            if (Files.exists(marker)) {
+                return true;
+            }
+            if (size() > 0) {
+                return false;
+            }
+            Files.createFile(marker);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start completion log backfill", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Snapshots the backfilled log and removes the in-progress marker.
+     */
+    public void finishBackfill() {
+        lock.writeLock().lock();
+        try {
+            writeSnapshot();
+            dirty = false;
+            Files.deleteIfExists(directory.resolve(BACKFILL_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to finish completion log backfill", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forces the mapped segments to disk and writes a snapshot of the index, so the next startup
+     * only has to scan records appended after this point.
+     */
+    @Scheduled(fixedDelayString = "${quiz.completion-log.snapshot-interval:60000}")
+    public void snapshot() {
+        lock.writeLock().lock();
+        try {
+            if (dirty) {
+                writeSnapshot();
+                dirty = false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to snapshot completion log", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the segments holding records whose quiz no longer exists without them, then rebuilds
+     * the index and snapshots it. The active segment keeps accepting appends after its kept records.
+     * <p>
+     * The segments are first scanned under the read lock only, and the write lock is taken just for
+     * the segments that actually lose records, so a run that finds nothing to drop costs no write,
+     * allocation or snapshot, and appends only wait while affected segments are rewritten.
+     *
+     * @param liveQuiz Tells whether records of the given quiz ID should be kept.
+     */
+    public void compact(LongPredicate liveQuiz) {
+        compactionLock.lock();
+        try {
+            List<Integer> affected = findSegmentsToCompact(liveQuiz);
+            if (affected.isEmpty()) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                Files.deleteIfExists(directory.resolve(SNAPSHOT_FILE));
+                for (int segment : affected) {
+                    compactSegment(segment, liveQuiz);
+                }
+                rebuildIndex();
+                writeSnapshot();
+                dirty = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to compact completion log", e);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+
+    /**
+     * Finds the segments holding at least one record to drop. Only compaction replaces the records of
+     * a segment, so once the segment list and counts are copied the scan needs no lock.
+     */
+    private List<Integer> findSegmentsToCompact(LongPredicate liveQuiz) {
+        List<ByteBuffer> buffers;
+        List<Integer> counts;
+        lock.readLock().lock();
+        try {
+            buffers = new ArrayList<>(segments);
+            counts = new ArrayList<>(segmentCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Integer> affected = new ArrayList<>();
+        for (int segment = 0; segment < buffers.size(); segment++) {
+            ByteBuffer buffer = buffers.get(segment);
+            for (int slot = 0; slot < counts.get(segment); slot++) {
+                if (!liveQuiz.test(buffer.getLong(offset(slot) + 4))) {
+                    affected.add(segment);
+                    break;
+                }
+            }
+        }
+        return affected;
+    }
+
+    private void compactSegment(int segment, LongPredicate liveQuiz) throws IOException {
+        MappedByteBuffer source = segments.get(segment);
+        int count = segmentCounts.get(segment);
+        ByteBuffer kept = null;
+        int keptCount = 0;
+        for (int slot = 0; slot < count; slot++) {
+            int base = offset(slot);
+            if (liveQuiz.test(source.getLong(base + 4))) {
+                if (kept != null) {
+                    copyRecord(source, base, kept);
+                }
+                keptCount++;
+            } else if (kept == null) {
+                kept = ByteBuffer.allocate(segmentSize());
+                writeHeader(kept);
+                kept.position(HEADER_SIZE);
+                for (int keptSlot = 0; keptSlot < keptCount; keptSlot++) {
+                    copyRecord(source, offset(keptSlot), kept);
+                }
+            }
+        }
+        if (kept == null) {
+            return;
+        }
+        kept.clear();
+        Path file = segmentFile(segment);
+        Path tmp = directory.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (kept.hasRemaining()) {
+                channel.write(kept);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        segments.set(segment, map(file));
+        segmentCounts.set(segment, keptCount);
+    }
+
+    private void recover() throws IOException {
+        int segmentCount = 0;
+        while (Files.exists(segmentFile(segmentCount))) {
+            segmentCount++;
+        }
+        if (segmentCount == 0) {
+            openSegment(0);
+            return;
+        }
+        for (int segment = 0; segment < segmentCount; segment++) {
+            MappedByteBuffer buffer = map(segmentFile(segment));
+            if (segment == segmentCount - 1 && isBlank(buffer)) {
+                // Created but never given its header before a crash: nothing was appended to it yet.
+                writeHeader(buffer);
+                buffer.force();
+            }
+            if (buffer.getInt(0) != SEGMENT_MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IllegalStateException("Completion log segment " + segmentFile(segment)
+                        + " is not in record format version " + FORMAT_VERSION + "; move the log directory away to start a new log");
+            }
+            segments.add(buffer);
+            segmentCounts.add(0);
+        }
+        int scanFrom = readSnapshot(segmentCount) - 1;
+        if (scanFrom < 0) {
+            scanFrom = 0;
+            userIndex.clear();
+            Collections.fill(segmentCounts, 0);
+        }
+        for (int segment = scanFrom; segment < segmentCount; segment++) {
+            int slot = segment == scanFrom ? segmentCounts.get(segment) : 0;
+            MappedByteBuffer buffer = segments.get(segment);
+            while (slot < segmentRecords && isValid(buffer, slot)) {
+                userIndex.computeIfAbsent(buffer.getInt(offset(slot)), k -> new PositionList())
+                        .add(position(segment, slot));
+                slot++;
+            }
+            segmentCounts.set(segment, slot);
+        }
+        truncateTornTail();
+    }
+
+    private void truncateTornTail() {
+        int segment = segments.size() - 1;
+        MappedByteBuffer buffer = segments.get(segment);
+        for (int i = offset(segmentCounts.get(segment)); i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                for (int j = i; j < buffer.capacity(); j++) {
+                    buffer.put(j, (byte) 0);
+                }
+                buffer.force();
+                return;
+            }
+        }
+    }
+
+    private void rebuildIndex() {
+        userIndex.clear();
+        for (int segment = 0; segment < segments.size(); segment++) {
+            ByteBuffer buffer = segments.get(segment);
+            for (int slot = 0; slot < segmentCounts.get(segment); slot++) {
+                userIndex.computeIfAbsent(buffer.getInt(offset(slot)), k -> new PositionList())
+                        .add(position(segment, slot));
+            }
+        }
+    }
+
+    /**
+     * Loads the snapshot, if any, and returns how many segments it covers, or 0 when there is no
+     * usable snapshot.
+     */
+    private int readSnapshot(int segmentCount) throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != FORMAT_VERSION) {
+                return 0;
+            }
+            int snapshotSegments = in.readInt();
+            if (snapshotSegments < 1 || snapshotSegments > segmentCount) {
+                return 0;
+            }
+            for (int segment = 0; segment < snapshotSegments; segment++) {
+                segmentCounts.set(segment, in.readInt());
+            }
+            int users = in.readInt();
+            for (int i = 0; i < users; i++) {
+                int userOrdinal = in.readInt();
+                int size = in.readInt();
+                PositionList positions = new PositionList();
+                for (int j = 0; j < size; j++) {
+                    positions.add(in.readLong());
+                }
+                userIndex.put(userOrdinal, positions);
+            }
+            return snapshotSegments;
+        } catch (EOFException e) {
+            return 0;
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(segments.size());
+            for (int count : segmentCounts) {
+                out.writeInt(count);
+            }
+            out.writeInt(userIndex.size());
+            for (Map.Entry<Integer, PositionList> entry : userIndex.entrySet()) {
+                PositionList positions = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeInt(positions.size);
+                for (int i = 0; i < positions.size; i++) {
+                    out.writeLong(positions.values[i]);
+                }
+            }
+        }
+        Files.move(tmp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private int openSegment(int segment) throws IOException {
+        MappedByteBuffer buffer = map(segmentFile(segment));
+        writeHeader(buffer);
+        buffer.force();
+        segments.add(buffer);
+        segmentCounts.add(0);
+        return segment;
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize());
+        }
+    }
+
+    private Path segmentFile(int segment) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private int segmentSize() {
+        return HEADER_SIZE + segmentRecords * RECORD_SIZE;
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer) {
+        for (int i = 0; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void copyRecord(ByteBuffer source, int base, ByteBuffer target) {
+        for (int i = 0; i < RECORD_SIZE; i++) {
+            target.put(source.get(base + i));
+        }
+    }
+
+    private static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(0, SEGMENT_MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+    }
+
+    private static void writeRecord(ByteBuffer buffer, int slot, int userOrdinal, long quizId, long completedAt) {
+        int base = offset(slot);
+        buffer.putInt(base, userOrdinal);
+        buffer.putLong(base + 4, quizId);
+        buffer.putLong(base + 12, completedAt);
+        buffer.putInt(base + 20, checksum(userOrdinal, quizId, completedAt));
+    }
+
+    private static boolean isValid(ByteBuffer buffer, int slot) {
+        int base = offset(slot);
+        long quizId = buffer.getLong(base + 4);
+        return quizId > 0
+                && buffer.getInt(base + 20) == checksum(buffer.getInt(base), quizId, buffer.getLong(base + 12));
+    }
+
+    private static int checksum(int userOrdinal, long quizId, long completedAt) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE - 4)
+                .putInt(userOrdinal)
+                .putLong(quizId)
+                .putLong(completedAt);
+        CRC32 crc = new CRC32();
+        crc.update(record.array());
+        return (int) crc.getValue();
+    }
+
+    private static long position(int segment, int slot) {
+        return ((long) segment << 32) | slot;
+    }
+
+    private static int segmentOf(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int slotOf(long position) {
+        return (int) position;
+    }
+
+    /**
+     * Growable array of record positions, avoiding a boxed {@code Long} per completion.
+     */
+    private static final class PositionList {
+        private long[] values = new long[8];
+        private int size;
+
+        void add(long position) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = position;
+        }
+    }
+}
@@ -4,13 +4,28 @@ import engine.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Repository
 public interface QuizCompletionRepository extends PagingAndSortingRepository<QuizCompletion, Long>, JpaRepository<QuizCompletion, Long> {
-    Page<QuizCompletion> findAllByUserEmail(String userEmail, Pageable pageable);
+    Page<QuizCompletion> findAllByUserIdAndQuizDeletedFalse(Long userId, Pageable pageable);
+
+    @Query("select c.quiz.id from QuizCompletion c group by c.quiz.id order by count(c) desc")
+    List<Long> findMostCompletedQuizIds(Pageable pageable);
+
+    @Query("select c.user.id from QuizCompletion c group by c.user.id order by max(c.completedAt) desc")
+    List<Long> findRecentlyActiveUserIds(Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM quiz_completion WHERE quiz_id = :quizId FETCH FIRST :limit ROWS ONLY", nativeQuery = true)
+    int deleteChunkByQuizId(@Param("quizId") Long quizId, @Param("limit") int limit);
 
 }
@@ -1,11 +1,56 @@
 package engine.repository;
 
 import engine.model.Quiz;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface QuizRepository extends JpaRepository<Quiz, Long>, PagingAndSortingRepository<Quiz, Long> {
+public interface QuizRepository extends JpaRepository<Quiz, Long>, PagingAndSortingRepository<Quiz, Long>, QuizRepositoryCustom {
+
+    Optional<Quiz> findByIdAndDeletedFalse(Long id);
+
+    Page<Quiz> findAllByDeletedFalse(Pageable pageable);
+
+    @Query("select distinct q from Quiz q left join fetch q.options where q.id in :ids and q.deleted = false")
+    List<Quiz> findAllWithOptionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct q from Quiz q left join fetch q.answer where q in :quizzes")
+    List<Quiz> fetchAnswers(@Param("quizzes") Collection<Quiz> quizzes);
+
+    long countByDeletedTrue();
+
+    @Query("select q.id from Quiz q where q.deleted = true")
+    List<Long> findDeletedIds(Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("update Quiz q set q.deleted = true where q.id = :id")
+    int markDeleted(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM quiz_options WHERE quiz_id = :id FETCH FIRST :limit ROWS ONLY", nativeQuery = true)
+    int deleteOptionsChunk(@Param("id") Long id, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM quiz_answer WHERE quiz_id = :id FETCH FIRST :limit ROWS ONLY", nativeQuery = true)
+    int deleteAnswerChunk(@Param("id") Long id, @Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Quiz q where q.id = :id and q.deleted = true")
+    int deletePurged(@Param("id") Long id);
 
 }
@@ -0,0 +1,19 @@
+package engine.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+
+public interface QuizRepositoryCustom {
+
+    /**
+     * Loads a page of non-deleted quizzes, reading only the requested fields from the database.
+     *
+     * @param fields   The quiz fields to load, among {@code id}, {@code title}, {@code text} and {@code options}.
+     * @param pageable The requested page.
+     * @return A page of field name to value maps, in the order of the requested fields.
+     */
+    Page<Map<String, Object>> findSummaries(List<String> fields, Pageable pageable);
+}
@@ -0,0 +1,72 @@
+package engine.repository;
+
+import engine.model.Quiz;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.*;
+
+public class QuizRepositoryCustomImpl implements QuizRepositoryCustom {
+    private static final String ID = "id";
+    private static final String OPTIONS = "options";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Map<String, Object>> findSummaries(List<String> fields, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Quiz> quiz = query.from(Quiz.class);
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(quiz.get(ID).alias(ID));
+        for (String field : fields) {
+            if (!field.equals(ID) && !field.equals(OPTIONS)) {
+                selections.add(quiz.get(field).alias(field));
+            }
+        }
+        query.multiselect(selections)
+                .where(builder.isFalse(quiz.get("deleted")))
+                .orderBy(builder.asc(quiz.get(ID)));
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        Map<Long, Map<String, Object>> rows = new LinkedHashMap<>();
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, field.equals(OPTIONS) ? new ArrayList<String>() : tuple.get(field));
+            }
+            rows.put(tuple.get(ID, Long.class), row);
+        }
+        if (fields.contains(OPTIONS) && !rows.isEmpty()) {
+            loadOptions(rows);
+        }
+
+        Long total = entityManager.createQuery("select count(q) from Quiz q where q.deleted = false", Long.class)
+                .getSingleResult();
+        return new PageImpl<>(new ArrayList<>(rows.values()), pageable, total);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadOptions(Map<Long, Map<String, Object>> rows) {
+        List<Object[]> options = entityManager
+                .createQuery("select q.id, o from Quiz q join q.options o where q.id in :ids order by q.id, index(o)",
+                        Object[].class)
+                .setParameter("ids", rows.keySet())
+                .getResultList();
+        for (Object[] option : options) {
+            ((List<String>) rows.get((Long) option[0]).get(OPTIONS)).add((String) option[1]);
+        }
+    }
+}
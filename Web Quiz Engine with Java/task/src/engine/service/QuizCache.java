@@ -0,0 +1,106 @@
+package engine.service;
+
+import engine.model.Quiz;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of quizzes by ID. Cached quizzes are detached entities whose options and answers
+ * have already been loaded, so they can be served and graded without a database round trip.
+ * Quizzes are never modified after creation, so an entry only has to be evicted when its quiz is deleted.
+ * <p>
+ * Deleted quizzes also leave a tombstone until they are purged. A reader that loaded a quiz just
+ * before it was deleted may try to cache it after the eviction; {@link #put} checks the tombstone
+ * after inserting and takes the entry back out, so a deleted quiz can never stay cached.
+ */
+@Component
+public class QuizCache {
+    private final Map<Long, Quiz> quizzes = new ConcurrentHashMap<>();
+    private final Set<Long> deleted = ConcurrentHashMap.newKeySet();
+    private final int maxSize;
+
+    /**
+     * Constructs a QuizCache with the given capacity.
+     *
+     * @param maxSize The maximum number of quizzes kept in the cache.
+     */
+    public QuizCache(@Value("${quiz.quiz-cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Looks up a cached quiz.
+     *
+     * @param id The ID of the quiz.
+     * @return Optional<Quiz> The quiz, if it is cached.
+     */
+    public Optional<Quiz> get(Long id) {
+        return Optional.ofNullable(quizzes.get(id));
+    }
+
+    /**
+     * Caches a fully loaded quiz, unless the cache is full or the quiz has been deleted.
+     *
+     * @param quiz The quiz to cache.
+     */
+    public void put(Quiz quiz) {
+        if (quizzes.size() < maxSize && !deleted.contains(quiz.getId())) {
+            quizzes.put(quiz.getId(), quiz);
+            if (deleted.contains(quiz.getId())) {
+                quizzes.remove(quiz.getId());
+            }
+        }
+    }
+
+    /**
+     * Removes a quiz from the cache.
+     *
+     * @param id The ID of the quiz.
+     */
+    public void evict(Long id) {
+        quizzes.remove(id);
+    }
+
+    /**
+     * Leaves a tombstone for a deleted quiz and removes it from the cache.
+     *
+     * @param id The ID of the quiz.
+     */
+    public void markDeleted(Long id) {
+        deleted.add(id);
+        quizzes.remove(id);
+    }
+
+    /**
+     * Tells whether a quiz has been deleted and not purged yet.
+     *
+     * @param id The ID of the quiz.
+     * @return boolean True if the quiz has a tombstone.
+     */
+    public boolean isDeleted(long id) {
+        return deleted.contains(id);
+    }
+
+    /**
+     * Tells whether any quiz is deleted and not purged yet.
+     *
+     * @return boolean True if at least one tombstone exists.
+     */
+    public boolean hasDeleted() {
+        return !deleted.isEmpty();
+    }
+
+    /**
+     * Removes the tombstone of a quiz, once it has been purged or its deletion was rolled back.
+     *
+     * @param id The ID of the quiz.
+     */
+    public void clearDeleted(Long id) {
+        deleted.remove(id);
+    }
+}
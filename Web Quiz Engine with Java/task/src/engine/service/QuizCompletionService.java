@@ -3,48 +3,134 @@ package engine.service;
 import engine.model.Quiz;
 import engine.model.QuizCompletion;
 import engine.model.User;
+import engine.repository.CompletionLog;
 import engine.repository.QuizCompletionRepository;
+import engine.repository.QuizRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
 /**
  * Service class for managing quiz completions. Provides functionality for creating quiz completions
  * and retrieving completion data for quizzes based on user identification.
+ * Completions are stored in the {@link CompletionLog} when it is enabled and in the database otherwise.
+ * When the log is first enabled, the {@link engine.config.CompletionLogBackfill} copies the completions
+ * already in the database into it before serving, so every read is answered from the log alone.
  */
 @Service
 public class QuizCompletionService {
     private final QuizCompletionRepository repository;
+    private final QuizRepository quizRepository;
+    private final CompletionLog completionLog;
+    private final QuizCache quizCache;
     /**
      * Constructs a QuizCompletionService with the necessary repository.
      *
-     * @param repository The repository used for storing and retrieving quiz completion data.
+     * @param repository     The repository used for storing and retrieving quiz completion data.
+     * @param quizRepository Repository used to check which quizzes still exist during log compaction.
+     * @param completionLog  The completion log, available only when it is enabled.
+     * @param quizCache      Cache holding the tombstones of deleted quizzes hidden from the log.
      */
     @Autowired
-    public QuizCompletionService(QuizCompletionRepository repository) {
+    public QuizCompletionService(QuizCompletionRepository repository, QuizRepository quizRepository,
+                                 ObjectProvider<CompletionLog> completionLog, QuizCache quizCache) {
         this.repository = repository;
+        this.quizRepository = quizRepository;
+        this.completionLog = completionLog.getIfAvailable();
+        this.quizCache = quizCache;
     }
 
     /**
      * Finds all quiz completions for a specific user, sorted by completion date in descending order.
      * The results are paginated.
      *
-     * @param email The email of the user whose completions are being queried.
+     * @param userId The ID of the user whose completions are being queried.
      * @param page The page number of the result set (zero-based).
      * @param pageSize The size of the page to be returned.
      * @return A page of {@link QuizCompletion} instances.
      */
 
-    public Page<QuizCompletion> findAllByUserEmail(String email, int page, int pageSize) {
+    public Page<QuizCompletion> findAllByUserId(Long userId, int page, int pageSize) {
+        if (completionLog != null) {
+            return findAllInLog(userId, PageRequest.of(page, pageSize));
+        }
         Pageable pageable = PageRequest.of(page,pageSize,Sort.by("completedAt").descending());
-        return repository.findAllByUserEmail(email,pageable);
+        return repository.findAllByUserIdAndQuizDeletedFalse(userId,pageable);
 
     }
 
+    /**
+     * Pages a user's completions straight from the completion log, which already keeps them in
+     * completion order, so no sorting or database access is needed. Completions of deleted quizzes
+     * stay in the log until the quiz is purged, so they are filtered out by their tombstone.
+     *
+     * @param userId   The ID of the user whose completions are being queried.
+     * @param pageable The requested page.
+     * @return A page of {@link QuizCompletion} instances.
+     */
+    private Page<QuizCompletion> findAllInLog(Long userId, Pageable pageable) {
+        LongPredicate visibleQuiz = quizId -> !quizCache.isDeleted(quizId);
+        List<QuizCompletion> content = completionLog.findByUser(userId, pageable.getOffset(), pageable.getPageSize(), visibleQuiz)
+                .stream()
+                .map(this::toCompletion)
+                .collect(Collectors.toList());
+        long total = quizCache.hasDeleted()
+                ? completionLog.countByUser(userId, visibleQuiz)
+                : completionLog.countByUser(userId);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private QuizCompletion toCompletion(CompletionLog.Entry entry) {
+        Quiz quiz = new Quiz();
+        quiz.setId(entry.getQuizId());
+        QuizCompletion completion = new QuizCompletion();
+        completion.setQuiz(quiz);
+        completion.setCompletedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getCompletedAt()), ZoneId.systemDefault()));
+        return completion;
+    }
+
+    /**
+     * Finds the quizzes that have been completed the most times.
+     *
+     * @param limit The maximum number of quiz IDs to return.
+     * @return The IDs of the most completed quizzes, most completed first.
+     */
+    public List<Long> findMostCompletedQuizIds(int limit) {
+        if (completionLog != null) {
+            return completionLog.findMostCompletedQuizIds(limit);
+        }
+        return repository.findMostCompletedQuizIds(PageRequest.of(0, limit));
+    }
+
+    /**
+     * Finds the users who completed a quiz most recently.
+     *
+     * @param limit The maximum number of user IDs to return.
+     * @return The IDs of the most recently active users, most recent first.
+     */
+    public List<Long> findRecentlyActiveUserIds(int limit) {
+        if (completionLog != null) {
+            return completionLog.findRecentlyActiveUserIds(limit);
+        }
+        return repository.findRecentlyActiveUserIds(PageRequest.of(0, limit));
+    }
+
     /**
      * Records a completed quiz for a user. This method creates a new QuizCompletion entry
      * in the repository.
@@ -54,9 +140,26 @@ public class QuizCompletionService {
      */
     @Transactional
     public void createCompleted(User user, Quiz quiz) {
+        if (completionLog != null) {
+            completionLog.append(user.getId(), quiz.getId(), System.currentTimeMillis());
+            return;
+        }
         QuizCompletion completion = new QuizCompletion();
         completion.setQuiz(quiz);
         completion.setUser(user);
         repository.save(completion);
     }
+
+    /**
+     * Periodically compacts the completion log, dropping the completions of quizzes that have
+     * been deleted since the last run.
+     */
+    @Scheduled(fixedDelayString = "${quiz.completion-log.compaction-interval:3600000}")
+    public void compactCompletionLog() {
+        if (completionLog == null) {
+            return;
+        }
+        Map<Long, Boolean> live = new HashMap<>();
+        completionLog.compact(quizId -> live.computeIfAbsent(quizId, quizRepository::existsById));
+    }
 }
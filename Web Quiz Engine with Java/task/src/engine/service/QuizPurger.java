@@ -0,0 +1,118 @@
+package engine.service;
+
+import engine.repository.CompletionLog;
+import engine.repository.QuizCompletionRepository;
+import engine.repository.QuizRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job removing the rows of quizzes marked as deleted. The completions and the
+ * element-collection rows of each quiz are removed with bulk deletes of a bounded number of rows,
+ * each in its own transaction, so purging a popular quiz never loads its completions into memory or
+ * holds locks for long. When the {@link CompletionLog} is enabled, the batch's completions are
+ * compacted out of it as well. The quiz row itself goes last, once nothing references it anymore,
+ * and only then is the quiz's tombstone removed from the {@link QuizCache}.
+ * <p>
+ * Progress is reported through the {@code quiz.purge.pending}, {@code quiz.purge.quizzes},
+ * {@code quiz.purge.completions} and {@code quiz.purge.element-rows} metrics.
+ */
+@Service
+public class QuizPurger {
+    private final QuizRepository quizRepository;
+    private final QuizCompletionRepository completionRepository;
+    private final CompletionLog completionLog;
+    private final QuizCache quizCache;
+    private final int quizzesPerRun;
+    private final int chunkSize;
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter purgedQuizzes;
+    private final Counter purgedCompletions;
+    private final Counter purgedElementRows;
+
+    /**
+     * Constructs a QuizPurger.
+     *
+     * @param quizRepository       Repository for quiz and element-collection rows.
+     * @param completionRepository Repository for completion rows.
+     * @param completionLog        The completion log, available only when it is enabled.
+     * @param quizCache            Cache holding the tombstones of deleted quizzes.
+     * @param meterRegistry        Registry receiving the progress metrics.
+     * @param quizzesPerRun        The maximum number of quizzes purged per run.
+     * @param chunkSize            The maximum number of rows removed per delete statement.
+     */
+    public QuizPurger(QuizRepository quizRepository, QuizCompletionRepository completionRepository,
+                      ObjectProvider<CompletionLog> completionLog, QuizCache quizCache, MeterRegistry meterRegistry,
+                      @Value("${quiz.purge.quizzes-per-run:100}") int quizzesPerRun,
+                      @Value("${quiz.purge.chunk-size:1000}") int chunkSize) {
+        this.quizRepository = quizRepository;
+        this.completionRepository = completionRepository;
+        this.completionLog = completionLog.getIfAvailable();
+        this.quizCache = quizCache;
+        this.quizzesPerRun = quizzesPerRun;
+        this.chunkSize = chunkSize;
+        Gauge.builder("quiz.purge.pending", pending, AtomicLong::get).register(meterRegistry);
+        this.purgedQuizzes = meterRegistry.counter("quiz.purge.quizzes");
+        this.purgedCompletions = meterRegistry.counter("quiz.purge.completions");
+        this.purgedElementRows = meterRegistry.counter("quiz.purge.element-rows");
+    }
+
+    /**
+     * Leaves a tombstone for every quiz deleted before a restart and not purged yet.
+     */
+    @PostConstruct
+    public void restoreTombstones() {
+        quizRepository.findDeletedIds(Pageable.unpaged()).forEach(quizCache::markDeleted);
+    }
+
+    /**
+     * Purges the next batch of deleted quizzes.
+     */
+    @Scheduled(fixedDelayString = "${quiz.purge.interval:10000}")
+    public void purge() {
+        pending.set(quizRepository.countByDeletedTrue());
+        List<Long> ids = quizRepository.findDeletedIds(PageRequest.of(0, quizzesPerRun));
+        if (ids.isEmpty()) {
+            return;
+        }
+        ids.forEach(this::purgeRows);
+        if (completionLog != null) {
+            Set<Long> purged = new HashSet<>(ids);
+            completionLog.compact(quizId -> !purged.contains(quizId));
+        }
+        for (Long id : ids) {
+            purgedQuizzes.increment(quizRepository.deletePurged(id));
+            quizCache.clearDeleted(id);
+            pending.decrementAndGet();
+        }
+    }
+
+    private void purgeRows(Long id) {
+        int deleted;
+        do {
+            deleted = completionRepository.deleteChunkByQuizId(id, chunkSize);
+            purgedCompletions.increment(deleted);
+        } while (deleted == chunkSize);
+        do {
+            deleted = quizRepository.deleteOptionsChunk(id, chunkSize);
+            purgedElementRows.increment(deleted);
+        } while (deleted == chunkSize);
+        do {
+            deleted = quizRepository.deleteAnswerChunk(id, chunkSize);
+            purgedElementRows.increment(deleted);
+        } while (deleted == chunkSize);
+    }
+}
@@ -1,5 +1,6 @@
 package engine.service;
 
+import engine.exception.InvalidFieldsException;
 import engine.exception.QuizNotFoundException;
 import engine.exception.UnauthorizedAccessException;
 import engine.model.Feedback;
@@ -7,36 +8,47 @@ import engine.model.Quiz;
 import engine.model.QuizAnswer;
 import engine.model.User;
 import engine.repository.QuizRepository;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class for managing quizzes. This includes creating quizzes, retrieving quiz information,
  * solving quizzes, and deleting quizzes. It leverages the QuizRepository for persistence operations
- * and QuizCompletionService for recording quiz completions.
+ * and QuizCompletionService for recording quiz completions. Quizzes read by ID are kept in the {@link QuizCache}.
  */
 @Service
 public class QuizzService {
+    private static final List<String> SUMMARY_FIELDS = List.of("id", "title", "text", "options");
+
     private final QuizRepository quizRepository;
     private final QuizCompletionService quizCompletionService;
+    private final QuizCache quizCache;
 
     /**
      * Constructs a QuizzService with necessary dependencies.
      *
      * @param quizRepository        Repository for accessing quiz data.
      * @param quizCompletionService Service for managing quiz completions.
+     * @param quizCache             Cache of fully loaded quizzes.
      */
     @Autowired
-    public QuizzService(QuizRepository quizRepository, QuizCompletionService quizCompletionService) {
+    public QuizzService(QuizRepository quizRepository, QuizCompletionService quizCompletionService, QuizCache quizCache) {
         this.quizRepository = quizRepository;
         this.quizCompletionService = quizCompletionService;
+        this.quizCache = quizCache;
     }
 
     /**
@@ -61,7 +73,27 @@ public class QuizzService {
      */
     public Page<Quiz> getAllQuizzes(int page, int pageSize) {
         Pageable pageable = PageRequest.of(page,pageSize);
-        return quizRepository.findAll(pageable);
+        return quizRepository.findAllByDeletedFalse(pageable);
+    }
+
+    /**
+     * Retrieves a page of quizzes in compact form, loading only the requested fields.
+     *
+     * @param page     The page number to retrieve.
+     * @param pageSize The number of quizzes per page.
+     * @param fields   The fields to include, among id, title, text and options.
+     * @return A page of field name to value maps.
+     * @throws InvalidFieldsException if a requested field is unknown.
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getQuizSummaries(int page, int pageSize, List<String> fields) {
+        for (String field : fields) {
+            if (!SUMMARY_FIELDS.contains(field)) {
+                throw new InvalidFieldsException("Unknown quiz field: " + field);
+            }
+        }
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(fields));
+        return quizRepository.findSummaries(distinct, PageRequest.of(page, pageSize));
     }
 
     /**
@@ -71,11 +103,41 @@ public class QuizzService {
      * @return The requested quiz.
      * @throws QuizNotFoundException if the quiz cannot be found.
      */
+    @Transactional(readOnly = true)
     public Quiz getQuizById(Long id) throws QuizNotFoundException {
-        return quizRepository.findById(id)
+        return quizCache.get(id)
+                .or(() -> quizRepository.findByIdAndDeletedFalse(id).map(this::cache))
                 .orElseThrow(() -> new QuizNotFoundException("Quiz not found for ID: " + id));
     }
 
+    /**
+     * Loads the given quizzes into the cache. The options and the answers are fetched for the whole
+     * batch in one query each, so a chunk costs two queries however many quizzes it holds.
+     *
+     * @param ids The IDs of the quizzes to load.
+     */
+    @Transactional(readOnly = true)
+    public void preloadQuizzes(Collection<Long> ids) {
+        List<Quiz> quizzes = quizRepository.findAllWithOptionsByIdIn(ids);
+        if (!quizzes.isEmpty()) {
+            quizRepository.fetchAnswers(quizzes);
+        }
+        quizzes.forEach(this::cache);
+    }
+
+    /**
+     * Initializes the lazy collections of a quiz and puts it into the cache.
+     *
+     * @param quiz The quiz to cache.
+     * @return The same quiz.
+     */
+    private Quiz cache(Quiz quiz) {
+        Hibernate.initialize(quiz.getOptions());
+        Hibernate.initialize(quiz.getAnswer());
+        quizCache.put(quiz);
+        return quiz;
+    }
+
     /**
      * Attempts to solve a quiz by comparing the provided answers with the correct answers.
      *
@@ -102,21 +164,33 @@ public class QuizzService {
      * @param givenAnswers   The answers given by the user.
      * @return true if the answers are the same, false otherwise.
      */
-    private boolean areAnswersCorrect(List<Integer> correctAnswers, List<Integer> givenAnswers) {
+    public static boolean areAnswersCorrect(List<Integer> correctAnswers, List<Integer> givenAnswers) {
         return new ArrayList<>(correctAnswers).equals(givenAnswers);
     }
 
     /**
-     * Deletes a quiz if the requesting user is the owner of the quiz.
+     * Deletes a quiz if the requesting user is the owner of the quiz. The quiz is only marked as deleted,
+     * which hides it from every read right away; its rows are removed later by the {@link QuizPurger}.
+     * The quiz's tombstone in the {@link QuizCache} is left before the update and only taken back if
+     * the transaction rolls back, so no concurrent reader can cache the quiz again in between.
      *
-     * @param quizId    The ID of the quiz to delete.
-     * @param userEmail The email of the user attempting to delete the quiz.
+     * @param quizId The ID of the quiz to delete.
+     * @param userId The ID of the user attempting to delete the quiz.
      * @throws UnauthorizedAccessException if the user is not authorized to delete the quiz.
      */
     @Transactional
-    public void deleteQuiz(Long quizId, String userEmail) {
-        if (getQuizById(quizId).getUser().getEmail().equals(userEmail)) {
-            quizRepository.deleteById(quizId);
+    public void deleteQuiz(Long quizId, Long userId) {
+        if (getQuizById(quizId).getUser().getId().equals(userId)) {
+            quizCache.markDeleted(quizId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        quizCache.clearDeleted(quizId);
+                    }
+                }
+            });
+            quizRepository.markDeleted(quizId);
         }
         else {
             throw new UnauthorizedAccessException("Unauthorized to delete quiz with ID: " + quizId);
@@ -0,0 +1,51 @@
+package engine.service;
+
+import engine.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process cache of users keyed by email. The authentication path looks every request's email up
+ * in this cache first, so a cached user authenticates without touching the database. Users are never
+ * changed or deleted once registered, so entries never go stale; the cache only stops accepting new
+ * entries once it reaches its configured size.
+ */
+@Component
+public class UserCache {
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    /**
+     * Constructs a UserCache with the given capacity.
+     *
+     * @param maxSize The maximum number of users kept in the cache.
+     */
+    public UserCache(@Value("${quiz.user-cache.max-size:100000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Looks up the user cached for an email.
+     *
+     * @param email The email of the user.
+     * @return Optional<User> The user, if it is cached.
+     */
+    public Optional<User> get(String email) {
+        return Optional.ofNullable(users.get(email));
+    }
+
+    /**
+     * Caches a user, unless the cache is full.
+     *
+     * @param user The user to cache.
+     */
+    public void put(User user) {
+        if (users.size() < maxSize) {
+            users.put(user.getEmail(), user);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.stream.Collector;
 
@@ -23,22 +24,26 @@ import java.util.stream.Collector;
 public class UserService implements UserDetailsService {
     private final UserRepository repository;
     private PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
 
     /**
      * Constructs a UserService with necessary dependencies.
      *
      * @param repository The user repository for database access.
      * @param passwordEncoder The encoder for hashing user passwords.
+     * @param userCache The cache of users keyed by email.
      */
     @Autowired
-    public UserService(UserRepository repository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository repository, PasswordEncoder passwordEncoder, UserCache userCache) {
         this.repository = repository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
     }
 
     /**
      * Loads the user details based on the email address. This method is used by Spring Security
-     * during the authentication process.
+     * during the authentication process. Users found in the {@link UserCache} are returned without
+     * a database query; others are loaded by email and cached for the next request.
      *
      * @param email The email of the user to load.
      * @return UserDetails The user details for the given email.
@@ -46,8 +51,13 @@ public class UserService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return repository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        Optional<User> cached = userCache.get(email);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Optional<User> user = repository.findByEmail(email);
+        user.ifPresent(userCache::put);
+        return user.orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
     }
 
     /**
@@ -63,7 +73,9 @@ public class UserService implements UserDetailsService {
             throw new UsernameBadRequestException("Email address " + user.getEmail() + " is already taken.");
         }
         user.setPassword(encodePassword(user.getPassword()));
-        return repository.save(user);
+        User saved = repository.save(user);
+        userCache.put(saved);
+        return saved;
     }
     /**
      * Encodes the password using the configured password encoder.
@@ -93,5 +105,14 @@ public class UserService implements UserDetailsService {
      */
     public Optional<User> findByEmail(String email) { return repository.findByEmail(email);}
 
+    /**
+     * Loads the given users into the {@link UserCache}, so their first login needs no database query.
+     *
+     * @param ids The IDs of the users to load.
+     */
+    public void preloadUsers(Collection<Long> ids) {
+        repository.findAllById(ids).forEach(userCache::put);
+    }
+
 
 }
@@ -0,0 +1,8 @@
+-- Schema changes to apply before deploying with the prod profile, where Hibernate does not update
+-- the schema. Every statement is safe to run again.
+
+-- Soft delete of quizzes: deleted quizzes are hidden at once and purged later by QuizPurger.
+ALTER TABLE QUIZ ADD COLUMN IF NOT EXISTS DELETED BOOLEAN DEFAULT FALSE NOT NULL;
+
+-- QUIZ_OPTIONS.OPTIONS_ORDER needs no statement here: OptionOrderMigration adds and fills it at
+-- startup under every profile.
@@ -0,0 +1,70 @@
+package engine.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class OptionOrderMigrationTest {
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @Before
+    public void createDatabase() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:option-order;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setDriverClassName("org.h2.Driver");
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @After
+    public void dropDatabase() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    public void numbersOptionsOfPreOrderTableInInsertionOrder() {
+        jdbc.execute("CREATE TABLE QUIZ_OPTIONS (QUIZ_ID BIGINT NOT NULL, OPTIONS VARCHAR(255))");
+        jdbc.update("INSERT INTO QUIZ_OPTIONS (QUIZ_ID, OPTIONS) VALUES (1, 'c'), (2, 'y'), (1, 'a'), (3, 'q'), (2, 'x'), (1, 'b')");
+
+        new OptionOrderMigration(dataSource, 1).prepare();
+
+        assertEquals(List.of("c", "a", "b"), options(1));
+        assertEquals(List.of("y", "x"), options(2));
+        assertEquals(List.of("q"), options(3));
+        assertEquals(List.of(0, 1, 2), jdbc.queryForList(
+                "SELECT OPTIONS_ORDER FROM QUIZ_OPTIONS WHERE QUIZ_ID = 1 ORDER BY OPTIONS_ORDER", Integer.class));
+        assertEquals("NO", jdbc.queryForObject("SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS "
+                + "WHERE TABLE_NAME = 'QUIZ_OPTIONS' AND COLUMN_NAME = 'OPTIONS_ORDER'", String.class));
+    }
+
+    @Test
+    public void secondRunLeavesNumberedOptionsAlone() {
+        jdbc.execute("CREATE TABLE QUIZ_OPTIONS (QUIZ_ID BIGINT NOT NULL, OPTIONS VARCHAR(255))");
+        jdbc.update("INSERT INTO QUIZ_OPTIONS (QUIZ_ID, OPTIONS) VALUES (1, 'a'), (1, 'b')");
+        new OptionOrderMigration(dataSource, 1000).prepare();
+        jdbc.update("INSERT INTO QUIZ_OPTIONS (QUIZ_ID, OPTIONS, OPTIONS_ORDER) VALUES (2, 'y', 1), (2, 'x', 0)");
+
+        new OptionOrderMigration(dataSource, 1000).prepare();
+
+        assertEquals(List.of("a", "b"), options(1));
+        assertEquals(List.of("x", "y"), options(2));
+    }
+
+    @Test
+    public void skipsDatabaseWithoutOptionsTable() {
+        new OptionOrderMigration(dataSource, 1000).prepare();
+
+        assertEquals(Integer.valueOf(0), jdbc.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE TABLE_NAME = 'QUIZ_OPTIONS'", Integer.class));
+    }
+
+    private List<String> options(long quizId) {
+        return jdbc.queryForList("SELECT OPTIONS FROM QUIZ_OPTIONS WHERE QUIZ_ID = ? ORDER BY OPTIONS_ORDER",
+                String.class, quizId);
+    }
+}
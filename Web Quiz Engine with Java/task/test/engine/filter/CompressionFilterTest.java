@@ -0,0 +1,61 @@
+package engine.filter;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CompressionFilterTest {
+    private final BufferPool bufferPool = new BufferPool(4, 64, 1024);
+    private final CompressionFilter filter = new CompressionFilter(new ResponseCompressor(bufferPool, 6, 2), bufferPool, 16);
+
+    @Test
+    public void compressesLargeJsonResponses() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(), response, (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(("[" + "{\"title\":\"quiz\"},".repeat(100) + "{}]").getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+    }
+
+    @Test
+    public void passesErrorResponsesThrough() throws Exception {
+        // Like the servlet container, sendError only records the error; the error page is rendered later.
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public void sendError(int status) {
+                setStatus(status);
+            }
+
+            @Override
+            public void sendError(int status, String errorMessage) {
+                setStatus(status);
+            }
+        };
+        FilterChain chain = (req, res) -> ((HttpServletResponse) res).sendError(400);
+
+        filter.doFilter(request(), response, chain);
+
+        assertEquals(400, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/quizzes");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        return request;
+    }
+}
@@ -0,0 +1,90 @@
+package engine.filter;
+
+import engine.config.RateLimitProperties;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+
+public class RateLimitFilterTest {
+    private static final String SOLVE = "/api/quizzes/1/solve";
+
+    @Test
+    public void userRejectionRefundsIpToken() throws Exception {
+        RateLimitFilter filter = filter(100, rule(RateLimitProperties.Key.IP, 2), rule(RateLimitProperties.Key.USER, 1));
+
+        assertEquals(200, solve(filter, "10.0.0.1", "alice"));
+        assertEquals(429, solve(filter, "10.0.0.1", "alice"));
+        assertEquals(200, solve(filter, "10.0.0.1", "bob"));
+        assertEquals(429, solve(filter, "10.0.0.1", "carol"));
+    }
+
+    @Test
+    public void ipRejectionCreatesNoUserBucket() throws Exception {
+        RateLimitFilter filter = filter(1, rule(RateLimitProperties.Key.IP, 1), rule(RateLimitProperties.Key.USER, 1));
+
+        assertEquals(200, solve(filter, "10.0.0.1", "alice"));
+        assertEquals(429, solve(filter, "10.0.0.1", "mallory"));
+        // Had mallory's request created a user bucket, it would have evicted alice's drained one.
+        assertEquals(429, solve(filter, "10.0.0.2", "alice"));
+    }
+
+    @Test
+    public void fullMapEvictsInsteadOfRejectingNewKeys() throws Exception {
+        RateLimitFilter filter = filter(2, rule(RateLimitProperties.Key.USER, 1));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, solve(filter, "10.0.0.1", "garbage" + i));
+        }
+        assertEquals(200, solve(filter, "10.0.0.1", "alice"));
+    }
+
+    @Test
+    public void requestsOutsideRulesAreNotLimited() throws Exception {
+        RateLimitFilter filter = filter(100, rule(RateLimitProperties.Key.IP, 1));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/quizzes");
+        request.setServletPath("/api/quizzes");
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+    }
+
+    private static RateLimitFilter filter(int maxBuckets, RateLimitProperties.Rule... rules) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxBuckets(maxBuckets);
+        for (RateLimitProperties.Rule rule : rules) {
+            properties.getRules().add(rule);
+        }
+        return new RateLimitFilter(properties);
+    }
+
+    private static RateLimitProperties.Rule rule(RateLimitProperties.Key key, int capacity) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setMethod("POST");
+        rule.setPath("/api/quizzes/*/solve");
+        rule.setKey(key);
+        rule.setCapacity(capacity);
+        rule.setRefillPerSecond(0.001);
+        return rule;
+    }
+
+    private static int solve(RateLimitFilter filter, String ip, String user) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", SOLVE);
+        request.setServletPath(SOLVE);
+        request.setRemoteAddr(ip);
+        String credential = Base64.getEncoder().encodeToString((user + ":password").getBytes(StandardCharsets.UTF_8));
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Basic " + credential);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
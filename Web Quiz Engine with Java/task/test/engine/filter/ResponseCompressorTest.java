@@ -0,0 +1,105 @@
+package engine.filter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ResponseCompressorTest {
+    private final ResponseCompressor compressor = new ResponseCompressor(new BufferPool(4, 64, 1024), 6, 2);
+
+    @Test
+    public void gzipRoundTrips() throws IOException {
+        byte[] body = json(5_000);
+
+        assertArrayEquals(body, gunzip(compress(body, body.length, ResponseCompressor.Encoding.GZIP)));
+    }
+
+    @Test
+    public void deflateRoundTrips() throws IOException {
+        byte[] body = json(5_000);
+
+        assertArrayEquals(body, inflate(compress(body, body.length, ResponseCompressor.Encoding.DEFLATE)));
+    }
+
+    @Test
+    public void compressesOnlyTheGivenLength() throws IOException {
+        byte[] body = json(1_000);
+        int length = body.length / 2;
+
+        assertArrayEquals(Arrays.copyOf(body, length), gunzip(compress(body, length, ResponseCompressor.Encoding.GZIP)));
+    }
+
+    @Test
+    public void pooledDeflatersAreResetBetweenUses() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < 5; i++) {
+            byte[] body = new byte[1 + random.nextInt(20_000)];
+            random.nextBytes(body);
+            assertArrayEquals(body, gunzip(compress(body, body.length, ResponseCompressor.Encoding.GZIP)));
+            assertArrayEquals(body, inflate(compress(body, body.length, ResponseCompressor.Encoding.DEFLATE)));
+        }
+    }
+
+    @Test
+    public void gzipOfEmptyBodyIsValid() throws IOException {
+        byte[] body = new byte[0];
+
+        assertArrayEquals(body, gunzip(compress(body, 0, ResponseCompressor.Encoding.GZIP)));
+    }
+
+    @Test
+    public void negotiatePrefersGzip() {
+        assertEquals(ResponseCompressor.Encoding.GZIP, ResponseCompressor.negotiate("deflate, gzip"));
+        assertEquals(ResponseCompressor.Encoding.GZIP, ResponseCompressor.negotiate("GZIP;q=0.5"));
+        assertEquals(ResponseCompressor.Encoding.DEFLATE, ResponseCompressor.negotiate("br, deflate"));
+        assertNull(ResponseCompressor.negotiate("br, identity"));
+        assertNull(ResponseCompressor.negotiate(null));
+    }
+
+    @Test
+    public void negotiateSkipsCodingsWithZeroQuality() {
+        assertEquals(ResponseCompressor.Encoding.DEFLATE, ResponseCompressor.negotiate("gzip;q=0, deflate"));
+        assertEquals(ResponseCompressor.Encoding.DEFLATE, ResponseCompressor.negotiate("gzip; q=0.000, deflate"));
+        assertNull(ResponseCompressor.negotiate("gzip;q=0, deflate;q=0.0"));
+        assertEquals(ResponseCompressor.Encoding.GZIP, ResponseCompressor.negotiate("gzip;q=0.01"));
+    }
+
+    private byte[] compress(byte[] data, int length, ResponseCompressor.Encoding encoding) {
+        try (BufferPool.PooledBuffer out = compressor.compress(data, length, encoding)) {
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        return readAll(new GZIPInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private static byte[] inflate(byte[] data) throws IOException {
+        return readAll(new InflaterInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] json(int quizzes) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < quizzes; i++) {
+            json.append("{\"id\":").append(i).append(",\"title\":\"Quiz ").append(i).append("\"},");
+        }
+        return json.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
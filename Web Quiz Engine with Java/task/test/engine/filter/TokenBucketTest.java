@@ -0,0 +1,57 @@
+package engine.filter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTest {
+    private static final long SECOND = 1_000_000_000L;
+    private static final long START = 1_000 * SECOND;
+
+    @Test
+    public void allowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, START);
+
+        assertEquals(0, bucket.tryAcquire(START));
+        assertEquals(0, bucket.tryAcquire(START));
+        assertEquals(0, bucket.tryAcquire(START));
+        assertEquals(SECOND, bucket.tryAcquire(START));
+    }
+
+    @Test
+    public void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(2, 4, START);
+        bucket.tryAcquire(START);
+        bucket.tryAcquire(START);
+
+        assertEquals(SECOND / 4, bucket.tryAcquire(START));
+        assertEquals(SECOND / 8, bucket.tryAcquire(START + SECOND / 8));
+        assertEquals(0, bucket.tryAcquire(START + SECOND / 4));
+        assertTrue(bucket.tryAcquire(START + SECOND / 4) > 0);
+    }
+
+    @Test
+    public void refundGivesTokenBack() {
+        TokenBucket bucket = new TokenBucket(1, 1, START);
+        assertEquals(0, bucket.tryAcquire(START));
+        assertTrue(bucket.tryAcquire(START) > 0);
+
+        bucket.refund();
+
+        assertEquals(0, bucket.tryAcquire(START));
+        assertTrue(bucket.tryAcquire(START) > 0);
+    }
+
+    @Test
+    public void isIdleOnceFullForIdleTime() {
+        TokenBucket bucket = new TokenBucket(5, 1, START);
+        assertTrue(bucket.isIdle(START + 10 * SECOND, 10 * SECOND));
+
+        bucket.tryAcquire(START);
+
+        assertFalse(bucket.isIdle(START + 10 * SECOND, 10 * SECOND));
+        assertTrue(bucket.isIdle(START + 11 * SECOND, 10 * SECOND));
+    }
+}
@@ -0,0 +1,163 @@
+package engine.repository;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CompletionLogTest {
+    private static final LongPredicate ALL_QUIZZES = quizId -> true;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reopeningZeroesTornTail() throws IOException {
+        CompletionLog log = open(8);
+        for (int i = 1; i <= 3; i++) {
+            log.append(1, i, i);
+        }
+        Path segment = folder.getRoot().toPath().resolve("segment-000000.log");
+        int tail = CompletionLog.HEADER_SIZE + 3 * CompletionLog.RECORD_SIZE;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 0, 0, 0, 0, 0, 0, 0, 42, 7}), tail);
+        }
+
+        log = open(8);
+
+        assertEquals(3, log.countByUser(1, ALL_QUIZZES));
+        byte[] bytes = Files.readAllBytes(segment);
+        for (int i = tail; i < bytes.length; i++) {
+            assertEquals("byte " + i, 0, bytes[i]);
+        }
+        log.append(1, 4, 4);
+        assertEquals(List.of(4L, 3L, 2L, 1L), quizIds(open(8), 1, 0, 10));
+    }
+
+    @Test
+    public void reopeningGivesHeaderToBlankLastSegment() throws IOException {
+        CompletionLog log = open(2);
+        log.append(1, 1, 1);
+        log.append(1, 2, 2);
+        Path segment = folder.getRoot().toPath().resolve("segment-000001.log");
+        Files.createFile(segment);
+
+        log = open(2);
+        assertEquals(2, log.countByUser(1));
+        log.append(1, 3, 3);
+
+        assertEquals(List.of(3L, 2L, 1L), quizIds(open(2), 1, 0, 10));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void refusesSegmentInOtherFormat() throws IOException {
+        open(2).append(1, 1, 1);
+        Path segment = folder.getRoot().toPath().resolve("segment-000000.log");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 1}), 4);
+        }
+
+        open(2);
+    }
+
+    @Test
+    public void reopeningLoadsSnapshotAndScansRecordsWrittenAfterIt() throws IOException {
+        CompletionLog log = open(4);
+        for (int i = 1; i <= 6; i++) {
+            log.append(2 - i % 2, i, i);
+        }
+        log.snapshot();
+        for (int i = 7; i <= 11; i++) {
+            log.append(2 - i % 2, i, i);
+        }
+
+        log = open(4);
+
+        assertEquals(6, log.countByUser(1, ALL_QUIZZES));
+        assertEquals(5, log.countByUser(2, ALL_QUIZZES));
+        assertEquals(List.of(11L, 9L, 7L, 5L, 3L, 1L), quizIds(log, 1, 0, 10));
+        assertEquals(List.of(10L, 8L, 6L, 4L, 2L), quizIds(log, 2, 0, 10));
+    }
+
+    @Test
+    public void reopeningAfterCompactionKeepsOnlyLiveRecords() throws IOException {
+        CompletionLog log = open(4);
+        for (int i = 1; i <= 10; i++) {
+            log.append(1, i % 3 == 0 ? 99 : i, i);
+        }
+        log.compact(quizId -> quizId != 99);
+
+        log = open(4);
+        assertEquals(List.of(10L, 8L, 7L, 5L, 4L, 2L, 1L), quizIds(log, 1, 0, 10));
+
+        Files.delete(folder.getRoot().toPath().resolve("index.snapshot"));
+        log = open(4);
+        assertEquals(7, log.countByUser(1));
+        log.append(1, 11, 11);
+        assertEquals(List.of(11L, 10L, 8L, 7L, 5L, 4L, 2L, 1L), quizIds(open(4), 1, 0, 10));
+    }
+
+    @Test
+    public void compactionRewritesOnlySegmentsWithDroppedRecords() throws IOException {
+        CompletionLog log = open(2);
+        for (long quizId : new long[]{1, 2, 3, 99, 5}) {
+            log.append(1, quizId, quizId);
+        }
+        Path root = folder.getRoot().toPath();
+        Object first = fileKey(root.resolve("segment-000000.log"));
+        Object last = fileKey(root.resolve("segment-000002.log"));
+
+        log.compact(quizId -> true);
+        assertFalse(Files.exists(root.resolve("index.snapshot")));
+
+        log.compact(quizId -> quizId != 99);
+        assertEquals(first, fileKey(root.resolve("segment-000000.log")));
+        assertEquals(last, fileKey(root.resolve("segment-000002.log")));
+        assertEquals(List.of(5L, 3L, 2L, 1L), quizIds(open(2), 1, 0, 10));
+    }
+
+    @Test
+    public void pagesNewestFirstAcrossSegments() throws IOException {
+        CompletionLog log = open(3);
+        for (int i = 1; i <= 10; i++) {
+            log.append(1, i, i);
+            log.append(2, 100 + i, i);
+        }
+
+        assertEquals(List.of(10L, 9L, 8L), quizIds(log, 1, 0, 3));
+        assertEquals(List.of(7L, 6L, 5L), quizIds(log, 1, 3, 3));
+        assertEquals(List.of(1L), quizIds(log, 1, 9, 3));
+        assertEquals(List.of(), quizIds(log, 1, 10, 3));
+        assertEquals(List.of(8L, 6L, 5L), log.findByUser(1, 1, 3, quizId -> quizId != 9 && quizId != 7).stream()
+                .map(CompletionLog.Entry::getQuizId)
+                .collect(Collectors.toList()));
+        assertEquals(8, log.countByUser(1, quizId -> quizId != 9 && quizId != 7));
+    }
+
+    private static Object fileKey(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+
+    private CompletionLog open(int segmentRecords) throws IOException {
+        return new CompletionLog(folder.getRoot().getPath(), segmentRecords);
+    }
+
+    private static List<Long> quizIds(CompletionLog log, long userId, long offset, int limit) {
+        return log.findByUser(userId, offset, limit, ALL_QUIZZES).stream()
+                .map(CompletionLog.Entry::getQuizId)
+                .collect(Collectors.toList());
+    }
+}